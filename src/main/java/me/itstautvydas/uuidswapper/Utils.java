@@ -4,6 +4,8 @@ import com.google.gson.*;
 import com.mojang.brigadier.context.CommandContext;
 import com.velocitypowered.api.proxy.Player;
 import lombok.experimental.UtilityClass;
+import me.itstautvydas.uuidswapper.helper.PlaceholderTemplate;
+import me.itstautvydas.uuidswapper.json.JsonPath;
 import me.itstautvydas.uuidswapper.multiplatform.MultiPlatform;
 import org.jetbrains.annotations.NotNull;
 
@@ -12,7 +14,9 @@ import java.io.Writer;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.function.Consumer;
 import java.util.regex.Pattern;
@@ -20,14 +24,15 @@ import java.util.stream.Collectors;
 
 @UtilityClass
 public class Utils {
-    private final String PLACEHOLDER_PREFIX = "{";
-    private final String PLACEHOLDER_SUFFIX = "}";
+    public final String PLACEHOLDER_PREFIX = "{";
+    public final String PLACEHOLDER_SUFFIX = "}";
 
     public final String COMMAND_PERMISSION = "uuidswapper.command";
     public final String RELOAD_COMMAND_PERMISSION = "uuidswapper.command.reload";
     public final String DEBUG_COMMAND_PERMISSION = "uuidswapper.command.debug";
     public final String PRETEND_COMMAND_PERMISSION = "uuidswapper.command.pretend";
     public final String TEST_COMMAND_PERMISSION = "uuidswapper.command.test-service";
+    public final String INDEX_COMMAND_PERMISSION = "uuidswapper.command.index";
 
     public final String GENERIC_DISCONNECT_MESSAGE_ID = "multiplayer.disconnect.generic";
 
@@ -81,30 +86,13 @@ public class Utils {
                 }).collect(Collectors.joining("&"));
     }
 
+    /**
+     * Prefer {@link JsonPath#compile(String)} once if the same path is used multiple times
+     */
     public JsonElement getJsonValue(JsonElement element, String path) {
-        if (element == null || element.isJsonNull())
-            return null;
-        if (path == null || path.isEmpty())
-            return element;
-        var parts = path.split("\\.");
-        for (var part : parts) {
-            if (part.matches(".+\\[\\d+]")) { // Array indexes - key[0]
-                var key = part.substring(0, part.indexOf('['));
-                int index = Integer.parseInt(part.substring(part.indexOf('[') + 1, part.indexOf(']')));
-                element = element.getAsJsonObject().get(key);
-                if (element == null || !element.isJsonArray())
-                    return null;
-                element = element.getAsJsonArray().get(index);
-            } else if (part.matches("\\[\\d+]")) { // Direct array indexes - [0]
-                int index = Integer.parseInt(part.substring(1, part.indexOf(']')));
-                if (!element.isJsonArray())
-                    return null;
-                element = element.getAsJsonArray().get(index);
-            } else { // Normal objects
-                element = element.getAsJsonObject().get(part);
-            }
-        }
-        return element;
+        if (path == null)
+            return element == null || element.isJsonNull() ? null : element;
+        return JsonPath.compile(path).get(element);
     }
 
     public Map<String, String> extractJsonPaths(String prefix, JsonElement data) {
@@ -137,15 +125,16 @@ public class Utils {
     }
 
     public String replacePlaceholders(String string, Map<String, Object> placeholders) {
-        if (placeholders == null)
+        if (placeholders == null || string == null)
             return string;
-        for (var entry : placeholders.entrySet()) {
-            var value = entry.getValue();
-            if (value == null)
-                value = "null";
-            string = string.replace(PLACEHOLDER_PREFIX + entry.getKey() + PLACEHOLDER_SUFFIX, value.toString());
-        }
-        return string;
+        // Only placeholders present in the string are looked up, so lazily resolved values are not computed for nothing
+        return PlaceholderTemplate.compile(string).render(placeholders);
+    }
+
+    public Set<String> findPlaceholders(String string) {
+        if (string == null)
+            return new HashSet<>();
+        return new HashSet<>(PlaceholderTemplate.compile(string).getNames());
     }
 
     public void addExceptionPlaceholders(Throwable ex, Map<String, Object> placeholders) {
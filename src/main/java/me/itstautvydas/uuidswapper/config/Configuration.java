@@ -1,27 +1,42 @@
 package me.itstautvydas.uuidswapper.config;
 
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.annotations.SerializedName;
 import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.ToString;
 import me.itstautvydas.uuidswapper.Utils;
 import me.itstautvydas.uuidswapper.annotation.RequiredProperty;
-import me.itstautvydas.uuidswapper.multiplatform.MultiPlatform;
 import me.itstautvydas.uuidswapper.database.DriverImplementation;
 import me.itstautvydas.uuidswapper.database.driver.JsonImplementation;
 import me.itstautvydas.uuidswapper.database.driver.MemoryCacheImplementation;
 import me.itstautvydas.uuidswapper.database.driver.SQLiteImplementation;
 import me.itstautvydas.uuidswapper.enums.ConditionsMode;
 import me.itstautvydas.uuidswapper.enums.ConsoleMessageType;
+import me.itstautvydas.uuidswapper.enums.ExecutorRejectionPolicy;
 import me.itstautvydas.uuidswapper.enums.FallbackUsage;
 import me.itstautvydas.uuidswapper.enums.ServiceStateEvent;
+import me.itstautvydas.uuidswapper.enums.StaleCacheMode;
+import me.itstautvydas.uuidswapper.helper.BiObjectHolder;
+import me.itstautvydas.uuidswapper.helper.PlaceholderTemplate;
+import me.itstautvydas.uuidswapper.json.JsonPath;
 import me.itstautvydas.uuidswapper.json.PostProcessable;
 import me.itstautvydas.uuidswapper.processor.*;
+import me.itstautvydas.uuidswapper.service.BulkLookupBatcher;
+import me.itstautvydas.uuidswapper.service.CircuitBreaker;
+import me.itstautvydas.uuidswapper.service.HttpResponseCache;
+import me.itstautvydas.uuidswapper.service.LatencyTracker;
+import me.itstautvydas.uuidswapper.service.RateLimitQueue;
 import me.itstautvydas.uuidswapper.service.RateLimitable;
-import org.jetbrains.annotations.Nullable;
+import me.itstautvydas.uuidswapper.service.ServiceStatistics;
+import me.itstautvydas.uuidswapper.service.UsernameIndex;
 
+import java.net.http.HttpClient;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 
 @SuppressWarnings({"FieldMayBeFinal"})
 @ToString
@@ -68,6 +83,60 @@ public class Configuration {
         }
     }
 
+    @ToString @Getter
+    @ReadMeTitle(order = -997)
+    @ReadMeDescription("Thread pools used by the plugin - `network` for service requests (`queue-limit` applies to " +
+            "fetches waiting to start, HTTP clients run on their own pool with the same threads setting and no queue " +
+            "limit), `database` for database reads and saves, `general` for commands. Changes only apply after a restart.")
+    public static class ExecutorsConfiguration {
+        @ToString @Getter
+        public static class ExecutorConfiguration implements PostProcessable {
+            @ReadMeDescription("Should virtual threads be used if server is running on Java 21 or newer (`threads` is ignored then)")
+            @ReadMeDefault("true")
+            protected boolean virtualThreads = true;
+            @ReadMeDescription("Amount of threads in the pool (0 - amount of available processors)")
+            @ReadMeDefault("0")
+            protected int threads;
+            @ReadMeDescription("Max amount of tasks running or waiting in the queue at once (-1 for unlimited)")
+            @ReadMeDefault("1000")
+            protected int queueLimit = 1000;
+            @ReadMeDescription("What to do with a new task when `queue-limit` is reached - `ABORT` (task fails, e.g. player " +
+                    "gets disconnected) or `CALLER_RUNS` (task runs on the thread which submitted it)")
+            @ReadMeDefault("ABORT")
+            protected ExecutorRejectionPolicy rejectionPolicy = ExecutorRejectionPolicy.ABORT;
+
+            public int getThreads() {
+                return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+            }
+
+            /**
+             * @return Copy of this configuration for an executor which never rejects a task
+             */
+            public ExecutorConfiguration withoutQueueLimit() {
+                var configuration = new ExecutorConfiguration();
+                configuration.virtualThreads = virtualThreads;
+                configuration.threads = threads;
+                configuration.queueLimit = -1;
+                configuration.rejectionPolicy = ExecutorRejectionPolicy.CALLER_RUNS;
+                return configuration;
+            }
+
+            @Override
+            public void postProcessed() {
+                queueLimit = queueLimit < 0 ? -1 : Math.max(queueLimit, 1);
+                if (rejectionPolicy == null)
+                    rejectionPolicy = ExecutorRejectionPolicy.ABORT;
+            }
+        }
+
+        @ReadMeMergeClass
+        protected ExecutorConfiguration network = new ExecutorConfiguration();
+        @ReadMeMergeClass
+        protected ExecutorConfiguration database = new ExecutorConfiguration();
+        @ReadMeMergeClass
+        protected ExecutorConfiguration general = new ExecutorConfiguration();
+    }
+
     @ToString @Getter
     @ReadMeTitle()
     @ReadMeDescription("Request services to get player's UUID (unique id) or online properties, player can get disconnected " +
@@ -86,15 +155,51 @@ public class Configuration {
         @RequiredProperty
         @ReadMeDescription("Which services to use next (in order) if above one fails (`array`)")
         protected LinkedHashSet<String> fallbackServices;
-        @ReadMeDescription("For how much time should last used successful service be remembered")
-        @ReadMeDefault("21600")
-        protected long fallbackServiceRememberTime = 21600;
-        @ReadMeDescription("Max timeout for all requests summed up (-1 to disable)")
+        @ReadMeDescription("Skip services which keep failing, so players don't have to wait for their time-outs")
+        @ReadMeLinkTo(CircuitBreakerConfiguration.class)
+        protected CircuitBreakerConfiguration circuitBreaker = new CircuitBreakerConfiguration();
+        @ReadMeDescription("Request services in order of their observed speed and reliability instead of the defined order")
+        @ReadMeLinkTo(AdaptiveServiceOrderConfiguration.class)
+        protected AdaptiveServiceOrderConfiguration adaptiveServiceOrder = new AdaptiveServiceOrderConfiguration();
+        @ReadMeDescription("Remember players who have no online profile, so services are not requested on every join")
+        @ReadMeLinkTo(NoProfileCacheConfiguration.class)
+        protected NoProfileCacheConfiguration noProfileCache = new NoProfileCacheConfiguration();
+        @ReadMeDescription("Limit how many players can be fetched from services at once, so join floods don't time out everyone")
+        @ReadMeLinkTo(AdmissionControlConfiguration.class)
+        protected AdmissionControlConfiguration admissionControl = new AdmissionControlConfiguration();
+        @ReadMeDescription("""
+                How cached player data is used once it has expired (see `cache-keep-time`):
+                \t`NONE` - services are requested again
+                \t`STALE_WHILE_REVALIDATE` - expired data is used right away and refreshed in the background
+                \t`STALE_IF_ERROR` - services are requested again, expired data is used if all of them fail""")
+        @ReadMeDefault("NONE")
+        protected StaleCacheMode staleCacheMode = StaleCacheMode.NONE;
+        @ReadMeDescription("For how long (minutes) after expiring can cached player data still be used (-1 to disable the limit)")
+        @ReadMeDefault("-1")
+        protected long maxStaleTime = -1;
+        @ReadMeDescription("Max time (milliseconds) to fetch player's data, requests still in progress are cancelled once it runs out (-1 to disable)")
         @ReadMeDefault("6000")
         protected long maxTimeout = 6000;
         @ReadMeDescription("Min timeout for a single request (0 to disable)")
         @ReadMeDefault("1000")
         protected long minTimeout = 1000;
+        @ReadMeDescription("Should next fallback service be requested in parallel if current service is taking too long to respond, " +
+                "first valid response is used (only if current service can use fallback on `ON_SERVICE_TIMEOUT`)")
+        @ReadMeDefault("false")
+        protected boolean hedgeRequests;
+        @ReadMeDescription("How much time (milliseconds) to wait for service's response before requesting next fallback service in parallel")
+        @ReadMeDefault("1500")
+        protected long hedgeDelay = 1500;
+        @ReadMeDescription("Should service's observed 95th percentile response time be used instead of `hedge-delay` (once enough responses were recorded)")
+        @ReadMeDefault("false")
+        protected boolean hedgeOnObservedLatency;
+        @ReadMeDescription("Should player's data be fetched as soon as player's username is known (BungeeCord's pre-login), " +
+                "so it's ready by the time player logs in (only offline connections are prefetched)")
+        @ReadMeDefault("false")
+        protected boolean prefetch;
+        @ReadMeDescription("For how long (milliseconds) prefetched player's data waits for player's login")
+        @ReadMeDefault("10000")
+        protected long prefetchSessionTime = 10000;
         @ReadMeDescription("Check if player connects with online UUID (skips service requests). This works by comparing generated offline UUID to player's UUID")
         @ReadMeDefault("true")
         protected boolean checkForOnlineUniqueId = true;
@@ -131,9 +236,148 @@ public class Configuration {
         public void postProcessed() {
             serviceConnectionThrottle = Math.max(serviceConnectionThrottle, 0);
             minTimeout = Math.max(minTimeout, 0);
+            hedgeDelay = Math.max(hedgeDelay, 0);
+            prefetchSessionTime = Math.max(prefetchSessionTime, 0);
             if (maxTimeout > 0)
                 maxTimeout = Math.max(maxTimeout, 500);
-            fallbackServiceRememberTime = Math.max(fallbackServiceRememberTime, -1);
+            if (circuitBreaker == null)
+                circuitBreaker = new CircuitBreakerConfiguration();
+            if (adaptiveServiceOrder == null)
+                adaptiveServiceOrder = new AdaptiveServiceOrderConfiguration();
+            if (noProfileCache == null)
+                noProfileCache = new NoProfileCacheConfiguration();
+            if (admissionControl == null)
+                admissionControl = new AdmissionControlConfiguration();
+            if (staleCacheMode == null)
+                staleCacheMode = StaleCacheMode.NONE;
+            maxStaleTime = Math.max(maxStaleTime, -1);
+        }
+    }
+
+    @ToString @Getter
+    @ReadMeTitle("Circuit Breaker")
+    @ReadMeDescription("Each service tracks outcomes of its last requests (time-outs, connection errors and 5xx/429 " +
+            "status codes are failures). Once failure rate is too high, service is skipped (if there are any services " +
+            "left) for `open-duration`, then a few probe requests are sent to check if it has recovered.")
+    public static class CircuitBreakerConfiguration implements PostProcessable {
+        @ReadMeDescription("Should failing services be skipped")
+        @ReadMeDefault("true")
+        protected boolean enabled = true;
+        @ReadMeDescription("Amount of last requests used to calculate failure rate")
+        @ReadMeDefault("20")
+        protected int windowSize = 20;
+        @ReadMeDescription("Min amount of requests in the window before failure rate is checked")
+        @ReadMeDefault("10")
+        protected int minimumCalls = 10;
+        @ReadMeDescription("Failure rate (percent) at which service starts being skipped")
+        @ReadMeDefault("50")
+        protected double failureRateThreshold = 50;
+        @ReadMeDescription("For how long (milliseconds) service is skipped before probing it again")
+        @ReadMeDefault("30000")
+        protected long openDuration = 30000;
+        @ReadMeDescription("Amount of successful probe requests needed to stop skipping the service (any failed probe " +
+                "skips it again)")
+        @ReadMeDefault("3")
+        protected int halfOpenProbes = 3;
+
+        @Override
+        public void postProcessed() {
+            windowSize = Math.max(windowSize, 1);
+            minimumCalls = Math.min(Math.max(minimumCalls, 1), windowSize);
+            failureRateThreshold = Math.min(Math.max(failureRateThreshold, 0), 100);
+            openDuration = Math.max(openDuration, 0);
+            halfOpenProbes = Math.max(halfOpenProbes, 1);
+        }
+    }
+
+    @ToString @Getter
+    @ReadMeTitle("Adaptive Service Order")
+    @ReadMeDescription("Each service keeps a moving average of its response time and success rate, services are requested " +
+            "in order of expected time until a successful response (response time divided by success rate). Services " +
+            "without enough recorded requests keep their defined place. Averages are stored in the database, so the order " +
+            "is known right after a restart.")
+    public static class AdaptiveServiceOrderConfiguration implements PostProcessable {
+        @ReadMeDescription("Should services be reordered")
+        @ReadMeDefault("false")
+        protected boolean enabled;
+        @ReadMeDescription("Weight (0-1) of the newest request in the averages, higher values react faster to changes")
+        @ReadMeDefault("0.2")
+        protected double smoothing = 0.2;
+        @ReadMeDescription("Min amount of recorded requests before service is reordered")
+        @ReadMeDefault("10")
+        protected int minimumSamples = 10;
+        @ReadMeDescription("Store averages to the database after this many requests of the service (0 to only store on shutdown and reload)")
+        @ReadMeDefault("25")
+        protected int saveEvery = 25;
+
+        @Override
+        public void postProcessed() {
+            smoothing = Math.min(Math.max(smoothing, 0.01), 1);
+            minimumSamples = Math.max(minimumSamples, 1);
+            saveEvery = Math.max(saveEvery, 0);
+        }
+    }
+
+    @ToString @Getter
+    @ReadMeTitle("No Profile Cache")
+    @ReadMeDescription("When a response handler with `remember-no-profile` decides whether player can join, that decision " +
+            "is remembered for the username. Next joins get the same result right away, without requesting any service.")
+    public static class NoProfileCacheConfiguration implements PostProcessable {
+        @ReadMeDescription("Should players without online profile be remembered")
+        @ReadMeDefault("false")
+        protected boolean enabled;
+        @ReadMeDescription("For how long (minutes) to remember the player (-1 to remember forever)")
+        @ReadMeDefault("60")
+        protected long keepTime = 60;
+        @ReadMeDescription("Max amount of players remembered in memory, the oldest remembered players are forgotten first")
+        @ReadMeDefault("10000")
+        protected int maxEntries = 10000;
+        @ReadMeDescription("Should players also be stored in the database (if driver supports it)")
+        @ReadMeDefault("false")
+        protected boolean storeInDatabase;
+
+        public long getKeepTimeMillis() {
+            return keepTime < 0 ? -1 : TimeUnit.MINUTES.toMillis(keepTime);
+        }
+
+        @Override
+        public void postProcessed() {
+            keepTime = Math.max(keepTime, -1);
+            maxEntries = Math.max(maxEntries, 1);
+        }
+    }
+
+    @ToString @Getter
+    @ReadMeTitle("Admission Control")
+    @ReadMeDescription("Players with usable cached data are never limited. Other players wait in a queue once " +
+            "`max-concurrent-fetches` players are being fetched from services. Players which were fetched before (their " +
+            "cached data has expired) go first, new players are let through at most `unknown-players-per-second` at a time.")
+    public static class AdmissionControlConfiguration implements PostProcessable {
+        @ReadMeDescription("Should admission control be enabled")
+        @ReadMeDefault("false")
+        protected boolean enabled;
+        @ReadMeDescription("Max amount of players fetched from services at once")
+        @ReadMeDefault("50")
+        protected int maxConcurrentFetches = 50;
+        @ReadMeDescription("Max amount of players waiting in the queue, players are disconnected once it's full")
+        @ReadMeDefault("500")
+        protected int queueSize = 500;
+        @ReadMeDescription("For how long (milliseconds) can player wait in the queue before being disconnected")
+        @ReadMeDefault("5000")
+        protected long maxQueueTime = 5000;
+        @ReadMeDescription("Max amount of new players started to be fetched per second (0 to not limit)")
+        @ReadMeDefault("20")
+        protected int unknownPlayersPerSecond = 20;
+        @ReadMeDescription("Disconnect message when player couldn't be admitted (uses `default-disconnect-message` if not set)")
+        @ReadMeDefault("null")
+        protected String rejectedDisconnectMessage;
+
+        @Override
+        public void postProcessed() {
+            maxConcurrentFetches = Math.max(maxConcurrentFetches, 1);
+            queueSize = Math.max(queueSize, 0);
+            maxQueueTime = Math.max(maxQueueTime, 0);
+            unknownPlayersPerSecond = Math.max(unknownPlayersPerSecond, 0);
         }
     }
 
@@ -180,15 +424,52 @@ public class Configuration {
         protected Map<String, Object> customStatusCodeDisconnectMessages;
         @ReadMeDescription("Max request per minute for the service")
         protected Integer maxRequestsPerMinute;
+        @ReadMeDescription("Max request per second for the service, limits bursts on top of `max-requests-per-minute`")
+        protected Integer maxRequestsPerSecond;
+        @ReadMeDescription("How many logins can wait (up to the time left of `max-timeout`) for the rate limit to free up, " +
+                "instead of being rate-limited right away (0 to not wait)")
+        @ReadMeDefault("0")
+        protected Integer rateLimitQueueSize;
         @ReadMeDescription("Service's time-out time in milliseconds")
         protected long timeout;
+        @ReadMeDescription("Time-out in milliseconds for opening a connection to the service (0 to only use `timeout`)")
+        @ReadMeDefault("0")
+        protected Long connectTimeout;
+        @ReadMeDescription("Preferred HTTP version - `HTTP_2` (falls back to HTTP/1.1 if service doesn't support it) or `HTTP_1_1`")
+        @ReadMeDefault("HTTP_2")
+        protected HttpClient.Version httpVersion;
+        @ReadMeDescription("Should redirects be followed - `NEVER`, `ALWAYS` or `NORMAL` (always, except from HTTPS to HTTP)")
+        @ReadMeDefault("NEVER")
+        protected HttpClient.Redirect redirectPolicy;
+        @ReadMeDescription("Max size (bytes) of service's response body after decompressing it, response is cancelled once it's larger (0 for unlimited)")
+        @ReadMeDefault("1048576")
+        protected Long maxResponseBytes;
+        @ReadMeDescription("Max amount of service's responses kept in memory as HTTP cache (`Cache-Control`, `ETag` and " +
+                "`Last-Modified` are respected), unchanged responses are not downloaded again (0 to disable)")
+        @ReadMeDefault("0")
+        protected Integer httpCacheSize;
+        @Getter(AccessLevel.NONE)
+        @ReadMeDescription("Should service be asked to compress its responses (gzip or deflate)")
+        @ReadMeDefault("true")
+        protected Boolean compressResponses;
         @ReadMeDescription("Should service's fetched player data be cached in database (if enabled)")
         @ReadMeDefault("true")
         protected Boolean allowDatabaseCaching;
+        @ReadMeDescription("For how long (minutes) service's fetched player data is fresh in the cache (-1 to keep it fresh forever)")
+        @ReadMeDefault("7200")
+        protected Long cacheKeepTime;
+        @ReadMeDescription("Should service's fetched player data also be cached in memory (checked before the database)")
+        @ReadMeDefault("false")
+        protected Boolean cacheInMemory;
         @Getter(AccessLevel.NONE)
         @ReadMeDescription("Should properties be required (disconnect otherwise)")
         @ReadMeDefault("false")
         protected Boolean requireProperties;
+        @Getter(AccessLevel.NONE)
+        @ReadMeDescription("Should `request-services-for-properties` be requested all at once (first successful one is used), " +
+                "services that do not use placeholders from the response are requested while waiting for the response")
+        @ReadMeDefault("false")
+        protected Boolean concurrentPropertiesFetch;
         @ReadMeDescription("Custom placeholders `(key -> value)` to use in disconnect messages and response handlers")
         protected Map<String, Object> customPlaceholders;
         @SerializedName("debug") @Getter(AccessLevel.NONE)
@@ -215,21 +496,39 @@ public class Configuration {
         public boolean isRequireProperties() {
             return Boolean.TRUE.equals(requireProperties);
         }
+
+        public boolean isCompressResponses() {
+            return Boolean.TRUE.equals(compressResponses);
+        }
+
+        public boolean isConcurrentPropertiesFetch() {
+            return Boolean.TRUE.equals(concurrentPropertiesFetch);
+        }
     }
 
     @ToString(callSuper = true) @Getter
     @ReadMeTitle()
     @ReadMeDescription("A service is used for fetching player's data.")
     public static class ServiceConfiguration extends DefaultServiceConfiguration implements PostProcessable {
+        // Placeholders that are known before any request is sent
+        private static final Set<String> REQUEST_PLACEHOLDERS = Set.of(
+                "username", "uuid", "database-running", "service-name", "max-timeout", "min-timeout"
+        );
+
         @ReadMeDescription("Should this service be enabled")
         @ReadMeDefault("true")
         protected boolean enabled = true;
         @RequiredProperty
         @ReadMeDescription("Name for the service that can be used in `use-service` or `fallback-services`")
         protected String name;
-        @RequiredProperty
-        @ReadMeDescription("Endpoint to where request should be sent")
+        @ReadMeDescription("Endpoint to where request should be sent, required unless `index-file` is defined")
         protected String endpoint;
+        @ReadMeDescription("Path (relative to plugin's directory) to a local username index, built with `index <service> <dump>` " +
+                "sub-command from a NDJSON or CSV players dump. If defined, players are looked up in the index instead " +
+                "of sending requests and the response is a profile like Mojang's (`id` and `name`), or status 404 if " +
+                "player was not found. Index doesn't have properties")
+        @ReadMeDefault("null")
+        protected String indexFile;
         @ReadMeDescription("JSON path to player's unique ID (support dashless UUIDs too), leave empty if response is suppose to be text only")
         @ReadMeDefault("null")
         protected String jsonPathToUuid;
@@ -239,11 +538,70 @@ public class Configuration {
         @ReadMeDescription("Which services should be used for fetching player's properties, `json-path-to-properties` is also included if defined")
         @ReadMeDefault("Empty")
         protected LinkedHashSet<String> requestServicesForProperties = new LinkedHashSet<>();
+        @ReadMeDescription("Endpoint which accepts a JSON array of usernames (POST) and returns an array of profiles (e.g. " +
+                "`https://api.mojang.com/profiles/minecraft`). If defined, logins are collected and looked up in a single " +
+                "request. Players who are not in the bulk response get status 404 (so response handlers still apply), " +
+                "players are requested from `endpoint` one by one only if the bulk request failed or was rate-limited. " +
+                "Endpoint and `headers` can only use batch's placeholders: `{service-name}`, `{usernames}` (comma " +
+                "separated), `{bulk-size}` and `{custom.<name>}`")
+        @ReadMeDefault("null")
+        protected String bulkEndpoint;
+        @ReadMeDescription("JSON path to the username in each profile returned by `bulk-endpoint`, profile is used as " +
+                "service's response (for `json-path-to-uuid`, `json-path-to-properties` and placeholders)")
+        @ReadMeDefault("name")
+        protected String bulkJsonPathToUsername = "name";
+        @ReadMeDescription("Max usernames in a single bulk request")
+        @ReadMeDefault("10")
+        protected int bulkMaxSize = 10;
+        @ReadMeDescription("Time in milliseconds to wait for more logins before sending a bulk request")
+        @ReadMeDefault("50")
+        protected long bulkWindow = 50;
         @ReadMeDescription("Custom response handlers")
         @ReadMeLinkTo(ResponseHandlerConfiguration.class)
         @ReadMeDefault("Empty")
         protected List<ResponseHandlerConfiguration> responseHandlers = new ArrayList<>();
 
+        @ToString.Exclude
+        private final transient LatencyTracker latencyTracker = new LatencyTracker(100);
+        @ToString.Exclude
+        private transient Set<String> requestPlaceholders = new HashSet<>();
+        @ToString.Exclude
+        private final transient CircuitBreaker circuitBreaker = new CircuitBreaker();
+        @ToString.Exclude @Setter
+        private transient ServiceStatistics statistics;
+        @ToString.Exclude
+        private final transient BulkLookupBatcher bulkLookupBatcher = new BulkLookupBatcher(this);
+        @ToString.Exclude
+        private final transient RateLimitQueue rateLimitQueue = new RateLimitQueue(this);
+        @ToString.Exclude
+        private final transient HttpResponseCache httpCache = new HttpResponseCache();
+        @ToString.Exclude @Setter
+        private transient volatile UsernameIndex usernameIndex;
+        @ToString.Exclude
+        private transient JsonPath bulkUsernameJsonPath;
+        @ToString.Exclude
+        private transient JsonPath uuidJsonPath;
+        @ToString.Exclude
+        private transient JsonPath propertiesJsonPath;
+        @ToString.Exclude
+        private transient PlaceholderTemplate endpointTemplate;
+        @ToString.Exclude
+        private transient PlaceholderTemplate bulkEndpointTemplate;
+        @ToString.Exclude
+        private transient PlaceholderTemplate queryDataTemplate;
+        @ToString.Exclude
+        private transient PlaceholderTemplate postDataTemplate;
+        @ToString.Exclude
+        private transient List<BiObjectHolder<PlaceholderTemplate, PlaceholderTemplate>> headerTemplates = new ArrayList<>();
+        @ToString.Exclude
+        private transient Map<String, PlaceholderTemplate> messageTemplates = new HashMap<>();
+        @ToString.Exclude
+        private transient Map<ServiceStateEvent, List<ResponseHandlerConfiguration>> responseHandlersByEvent =
+                new EnumMap<>(ServiceStateEvent.class);
+        // Every placeholder that could be looked up while this service is used
+        @ToString.Exclude
+        private transient Set<String> referencedPlaceholders = new HashSet<>();
+
         public void setDefaults(DefaultServiceConfiguration service) {
             this.requestMethod = defaultValue(requestMethod, service.getRequestMethod(), "GET");
             this.badUniqueIdDisconnectMessage = defaultValue(badUniqueIdDisconnectMessage, service.badUniqueIdDisconnectMessage, null);
@@ -256,15 +614,114 @@ public class Configuration {
             this.propertiesFailedDisconnectMessage = defaultValue(propertiesFailedDisconnectMessage, service.propertiesFailedDisconnectMessage, null);
             this.expectStatusCode = defaultValue(expectStatusCode, service.expectStatusCode, 200);
             this.allowDatabaseCaching = defaultValue(allowDatabaseCaching, service.allowDatabaseCaching, true);
+            this.cacheKeepTime = defaultValue(cacheKeepTime, service.cacheKeepTime, 7200L);
+            this.cacheInMemory = defaultValue(cacheInMemory, service.cacheInMemory, false);
             this.requireProperties = defaultValue(requireProperties, service.requireProperties, false);
+            this.concurrentPropertiesFetch = defaultValue(concurrentPropertiesFetch, service.concurrentPropertiesFetch, false);
             this.debugEnabled = defaultValue(debugEnabled, service.debugEnabled, false);
             this.useFallbacks = defaultValue(useFallbacks, service.useFallbacks, new LinkedHashSet<>());
             this.postData = defaultValue(postData, service.postData, new HashMap<>());
             this.queryData = defaultValue(queryData, service.queryData, new HashMap<>());
             this.headers = defaultValue(headers, service.headers, new HashMap<>());
             this.maxRequestsPerMinute = defaultValue(maxRequestsPerMinute, service.maxRequestsPerMinute, null);
+            this.maxRequestsPerSecond = defaultValue(maxRequestsPerSecond, service.maxRequestsPerSecond, null);
+            this.rateLimitQueueSize = Math.max(0, defaultValue(rateLimitQueueSize, service.rateLimitQueueSize, 0));
+            this.maxResponseBytes = Math.max(0, defaultValue(maxResponseBytes, service.maxResponseBytes, 1048576L));
+            this.compressResponses = defaultValue(compressResponses, service.compressResponses, true);
+            this.httpCacheSize = Math.max(0, defaultValue(httpCacheSize, service.httpCacheSize, 0));
+            this.connectTimeout = Math.max(0, defaultValue(connectTimeout, service.connectTimeout, 0L));
+            this.httpVersion = defaultValue(httpVersion, service.httpVersion, HttpClient.Version.HTTP_2);
+            this.redirectPolicy = defaultValue(redirectPolicy, service.redirectPolicy, HttpClient.Redirect.NEVER);
             this.customPlaceholders = combineMap(customPlaceholders, service.customPlaceholders);
             this.customStatusCodeDisconnectMessages = combineMap(customStatusCodeDisconnectMessages, service.customStatusCodeDisconnectMessages);
+
+            requestPlaceholders = new HashSet<>(Utils.findPlaceholders(endpoint));
+            for (var map : List.of(queryData, postData, headers)) {
+                for (var entry : map.entrySet()) {
+                    requestPlaceholders.addAll(Utils.findPlaceholders(entry.getKey()));
+                    requestPlaceholders.addAll(Utils.findPlaceholders(entry.getValue()));
+                }
+            }
+
+            var messages = new ArrayList<>(Arrays.asList(
+                    service.defaultDisconnectMessage,
+                    defaultDisconnectMessage,
+                    badUniqueIdDisconnectMessage,
+                    connectionErrorDisconnectMessage,
+                    badStatusDisconnectMessage,
+                    unknownErrorDisconnectMessage,
+                    timeoutDisconnectMessage,
+                    rateLimitedDisconnectMessage,
+                    propertiesFailedDisconnectMessage
+            ));
+            for (var value : customPlaceholders.values())
+                messages.add(Objects.toString(value, null));
+            for (var value : customStatusCodeDisconnectMessages.values())
+                messages.add(Objects.toString(value, null));
+            referencedPlaceholders = new HashSet<>(requestPlaceholders);
+            for (var handler : responseHandlers) {
+                messages.add(handler.disconnectMessage);
+                messages.add(handler.messageToConsole);
+                if (handler.conditions != null)
+                    for (var key : handler.conditions.keySet())
+                        referencedPlaceholders.add(key.startsWith("?") ? key.substring(1) : key);
+            }
+            for (var message : messages)
+                referencedPlaceholders.addAll(Utils.findPlaceholders(message));
+
+            endpointTemplate = PlaceholderTemplate.compile(endpoint);
+            bulkEndpointTemplate = PlaceholderTemplate.compile(bulkEndpoint);
+            queryDataTemplate = PlaceholderTemplate.compile(Utils.buildDataString(queryData));
+            postDataTemplate = PlaceholderTemplate.compile(Utils.buildDataString(postData));
+            headerTemplates = new ArrayList<>();
+            for (var header : headers.entrySet())
+                headerTemplates.add(new BiObjectHolder<>(
+                        PlaceholderTemplate.compile(header.getKey()),
+                        PlaceholderTemplate.compile(header.getValue())
+                ));
+            messageTemplates = new HashMap<>();
+            for (var message : messages)
+                if (message != null)
+                    messageTemplates.put(message, PlaceholderTemplate.compile(message));
+        }
+
+        /**
+         * @return Template compiled at configuration load if message is from this service's configuration
+         */
+        public PlaceholderTemplate getMessageTemplate(String message) {
+            var template = messageTemplates.get(message);
+            return template == null ? PlaceholderTemplate.compile(message) : template;
+        }
+
+        /**
+         * Properties services build their requests from this service's placeholders, must be called after
+         * {@link #setDefaults(DefaultServiceConfiguration)} of every service.
+         */
+        public void referencePropertiesServicesPlaceholders(OnlineAuthenticationConfiguration configuration) {
+            if (requestServicesForProperties == null)
+                return;
+            for (var propertyServiceName : requestServicesForProperties) {
+                var propertyService = configuration.getService(propertyServiceName);
+                if (propertyService != null)
+                    referencedPlaceholders.addAll(propertyService.requestPlaceholders);
+            }
+        }
+
+        /**
+         * @return true if any placeholder starting with the given prefix is used in this service's configuration
+         */
+        public boolean isPlaceholderReferenced(String prefix) {
+            for (var placeholder : referencedPlaceholders)
+                if (placeholder.startsWith(prefix))
+                    return true;
+            return false;
+        }
+
+        /**
+         * @return true if request can be sent without knowing other service's response
+         */
+        public boolean isIndependentFromResponse() {
+            return REQUEST_PLACEHOLDERS.containsAll(requestPlaceholders);
         }
 
         protected Map<String, Object> combineMap(Map<String, Object> current, Map<String, Object> defaultMap) {
@@ -290,13 +747,44 @@ public class Configuration {
         }
 
         public ResponseHandlerConfiguration executeResponseHandlers(ServiceStateEvent state, Map<String, Object> placeholders) {
-            for (var handler : responseHandlers) {
-                if (handler.event == state && handler.testConditions(placeholders))
+            var handlers = responseHandlersByEvent.get(state);
+            if (handlers == null)
+                return null;
+            for (var handler : handlers) {
+                if (handler.testConditions(placeholders))
                     return handler;
             }
             return null;
         }
 
+        /**
+         * Group response handlers by event and compile their conditions, must be called after raw configuration is loaded
+         */
+        public void compileResponseHandlers(JsonElement rawConfiguration) {
+            var byEvent = new EnumMap<ServiceStateEvent, List<ResponseHandlerConfiguration>>(ServiceStateEvent.class);
+            for (var handler : responseHandlers) {
+                handler.compileConditions(rawConfiguration);
+                byEvent.computeIfAbsent(handler.event, event -> new ArrayList<>()).add(handler);
+            }
+            responseHandlersByEvent = byEvent;
+        }
+
+        public boolean isBulkLookupEnabled() {
+            return bulkEndpoint != null;
+        }
+
+        public boolean isLocalIndex() {
+            return indexFile != null;
+        }
+
+        /**
+         * @return true if each player's lookup sends its own request (bulk requests are rate-limited once per bulk
+         * request and local index is not rate-limited at all)
+         */
+        public boolean isRequestedPerPlayer() {
+            return !isBulkLookupEnabled() && !isLocalIndex();
+        }
+
         public boolean canRetrieveUniqueId() {
             return jsonPathToUuid != null;
         }
@@ -308,6 +796,12 @@ public class Configuration {
         @Override
         public void postProcessed() {
             responseHandlers.sort(Comparator.comparingLong(ResponseHandlerConfiguration::getOrder));
+            bulkMaxSize = Math.max(bulkMaxSize, 1);
+            bulkWindow = Math.max(bulkWindow, 0);
+            bulkUsernameJsonPath = JsonPath.compile(bulkJsonPathToUsername == null ? "name" : bulkJsonPathToUsername);
+            uuidJsonPath = JsonPath.compile(jsonPathToUuid);
+            propertiesJsonPath = JsonPath.compile(jsonPathToProperties);
+            statistics = new ServiceStatistics(name);
         }
     }
 
@@ -344,6 +838,10 @@ public class Configuration {
         @ReadMeDescription("Custom disconnect message if `allow-player-to-join` is set to false")
         @ReadMeDefault("null")
         protected String disconnectMessage;
+        @ReadMeDescription("Remember that player has no online profile (only if `allow-player-to-join` is set), next joins " +
+                "with the same username get the same result without requesting services, see [no profile cache](#no-profile-cache)")
+        @ReadMeDefault("false")
+        protected boolean rememberNoProfile;
         @ReadMeDescription("Send custom message to console")
         @ReadMeDefault("null")
         protected String messageToConsole;
@@ -364,59 +862,75 @@ public class Configuration {
         @ReadMeDefault("Empty")
         protected Map<String, Object> conditions;
 
+        @ToString.Exclude
+        private transient List<Predicate<Map<String, Object>>> compiledConditions = List.of();
+
         public boolean testConditions(Map<String, Object> placeholders) {
-            if (conditions == null || conditions.isEmpty())
+            if (compiledConditions.isEmpty())
                 return true;
-            Boolean result = null;
-            for (var entry : conditions.entrySet()) {
-                boolean conditionResult;
-                if (entry.getKey().startsWith("?")) {
-                    if (entry.getValue() instanceof Boolean bool)
-                        conditionResult = placeholders.containsKey(entry.getKey().substring(1)) == bool;
-                    else
-                        conditionResult = false;
-                } else if (entry.getKey().startsWith("config::")) {
-                    try {
-                        var jsonValue = Utils.getJsonValue(
-                                MultiPlatform.get().getRawConfiguration(),
-                                entry.getKey().substring(8)
-                        );
-                        if (entry.getValue() == null || jsonValue == null) {
-                            conditionResult = Objects.equals(entry.getValue(), jsonValue);
-                        } else {
-                            if (ignoreConditionsCase)
-                                conditionResult = jsonValue.toString().equalsIgnoreCase(entry.getValue().toString());
-                            else if (forceStringOnConditions)
-                                conditionResult = jsonValue.toString().equals(entry.getValue().toString());
-                            else
-                                conditionResult = jsonValue.equals(entry.getValue());
-                        }
-                    } catch (Exception e) {
-                        conditionResult = false;
-                    }
-                } else {
-                    @Nullable var value = placeholders.get(entry.getKey());
-                    if (entry.getValue() == null || value == null) {
-                        conditionResult = Objects.equals(entry.getValue(), value);
-                    } else {
-                        if (ignoreConditionsCase)
-                            conditionResult = entry.getValue().toString().equalsIgnoreCase(value.toString());
-                        else if (forceStringOnConditions)
-                            conditionResult = entry.getValue().toString().equals(value.toString());
-                        else
-                            conditionResult = entry.getValue().equals(value);
-                    }
-                }
-                if (result == null) {
-                    result = conditionResult;
-                } else {
-                    if (conditionsMode == ConditionsMode.AND)
-                        result = result && conditionResult;
-                    else
-                        result = result || conditionResult;
-                }
+            var and = conditionsMode == ConditionsMode.AND;
+            for (var condition : compiledConditions) {
+                if (condition.test(placeholders) != and)
+                    return !and;
+            }
+            return and;
+        }
+
+        /**
+         * Compile conditions into predicates, values of {@code config::} conditions are resolved here once
+         */
+        public void compileConditions(JsonElement rawConfiguration) {
+            var compiled = new ArrayList<Predicate<Map<String, Object>>>();
+            if (conditions != null) {
+                for (var entry : conditions.entrySet())
+                    compiled.add(compileCondition(entry.getKey(), entry.getValue(), rawConfiguration));
+            }
+            compiledConditions = compiled;
+        }
+
+        private Predicate<Map<String, Object>> compileCondition(String key, Object expected, JsonElement rawConfiguration) {
+            if (key.startsWith("?")) {
+                if (!(expected instanceof Boolean bool))
+                    return placeholders -> false;
+                var name = key.substring(1);
+                return placeholders -> placeholders.containsKey(name) == bool;
+            }
+            if (key.startsWith("config::")) {
+                var result = testConfigCondition(key.substring(8), expected, rawConfiguration);
+                return placeholders -> result;
+            }
+            if (expected == null)
+                return placeholders -> placeholders.get(key) == null;
+            var expectedString = expected.toString();
+            if (ignoreConditionsCase)
+                return placeholders -> {
+                    var value = placeholders.get(key);
+                    return value != null && expectedString.equalsIgnoreCase(value.toString());
+                };
+            if (forceStringOnConditions)
+                return placeholders -> {
+                    var value = placeholders.get(key);
+                    return value != null && expectedString.equals(value.toString());
+                };
+            return placeholders -> expected.equals(placeholders.get(key));
+        }
+
+        private boolean testConfigCondition(String path, Object expected, JsonElement rawConfiguration) {
+            try {
+                return conditionMatches(expected, JsonPath.compile(path).get(rawConfiguration));
+            } catch (Exception e) {
+                return false;
             }
-            return result;
+        }
+
+        private boolean conditionMatches(Object expected, Object value) {
+            if (expected == null || value == null)
+                return Objects.equals(expected, value);
+            if (ignoreConditionsCase)
+                return expected.toString().equalsIgnoreCase(value.toString());
+            if (forceStringOnConditions)
+                return expected.toString().equals(value.toString());
+            return expected.equals(value);
         }
 
         @Override
@@ -560,12 +1074,30 @@ public class Configuration {
         @RequiredProperty
         @ReadMeDescription("Message when plugin wasn't able to fake another player")
         protected String playerPretendFailed;
+        @ReadMeDescription("""
+                Message when service's username index was built. Available placeholders:
+                `{service}` - service's name
+                `{players}` - how many players are in the index
+                `{skipped}` - how many lines of the dump were invalid
+                `{took}` - how many milliseconds it took to build""")
+        protected String indexSuccess = "{prefix}&aIndex of {service} was built with {players} players ({skipped} invalid lines skipped, took {took}ms)";
+        @ReadMeDescription("""
+                Message when service's username index failed to build. Available placeholders:
+                `{service}` - service's name
+                `{error.class}` - exception's full (with package) class
+                `{error.class-name}` - exception's class name
+                `{error.message}` - exception's message""")
+        protected String indexFailed = "{prefix}&cFailed to build index of {service}: &4{error.message}";
+        @ReadMeDescription("Message when service doesn't exist or doesn't have `index-file` defined. Available placeholders:\n" +
+                "`{service}` - service's name")
+        protected String indexUnknownService = "{prefix}&cService {service} doesn't exist or doesn't have index-file defined!";
     }
 
     @RequiredProperty
     protected PaperConfiguration paper;
     @RequiredProperty
     protected DatabaseConfiguration database;
+    protected ExecutorsConfiguration executors = new ExecutorsConfiguration();
     @RequiredProperty
     protected OnlineAuthenticationConfiguration onlineAuthentication;
     @RequiredProperty
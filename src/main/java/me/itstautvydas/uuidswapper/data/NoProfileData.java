@@ -0,0 +1,28 @@
+package me.itstautvydas.uuidswapper.data;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import me.itstautvydas.uuidswapper.database.Queueable;
+
+/**
+ * Remembered result of a player who has no online profile, so services don't have to be requested again
+ */
+@RequiredArgsConstructor
+@Getter
+@ToString
+public class NoProfileData implements Queueable {
+    private final String username;
+    private final String serviceName;
+    private final boolean allowedToJoin;
+    // Null - default disconnect message is used
+    private final String disconnectMessage;
+    private final long createdAt;
+
+    /**
+     * @param keepTime Time to keep in milliseconds, -1 to keep forever
+     */
+    public boolean isExpired(long keepTime) {
+        return keepTime >= 0 && System.currentTimeMillis() - createdAt > keepTime;
+    }
+}
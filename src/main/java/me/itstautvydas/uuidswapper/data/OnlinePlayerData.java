@@ -25,11 +25,25 @@ public class OnlinePlayerData extends Timeable implements Jsonable, Queueable {
 
     public OnlinePlayerData(UUID originalUniqueId, UUID onlineUniqueId, List<ProfilePropertyWrapper> properties, Timeable time) {
         super(time == null ? 0 : time.getCreatedAt(), time == null ? 0 : time.getUpdatedAt());
+        if (time != null)
+            setTimeKeep(time.getTimeKeep());
         this.originalUniqueId = originalUniqueId;
         this.uniqueId = onlineUniqueId;
         this.properties = properties;
     }
 
+    @Override
+    public OnlinePlayerData updateTime(Long createdAt, Long updatedAt) {
+        super.updateTime(createdAt, updatedAt);
+        return this;
+    }
+
+    @Override
+    public OnlinePlayerData setTimeKeep(long timeKeep) {
+        super.setTimeKeep(timeKeep);
+        return this;
+    }
+
     public PlayerData toPlayerData(String username) {
         return new PlayerData(
                 originalUniqueId,
@@ -19,4 +19,8 @@ public class PlayerData extends OnlinePlayerData implements Jsonable {
         super(originalUniqueId, uniqueId, properties, null);
         this.username = username;
     }
+
+    public PlayerData(UUID originalUniqueId, String username, UUID uniqueId) {
+        this(originalUniqueId, uniqueId, username, null);
+    }
 }
@@ -1,13 +1,27 @@
 package me.itstautvydas.uuidswapper.data;
 
+import com.google.gson.JsonElement;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
 import java.net.http.HttpResponse;
+import java.util.Map;
 
 @AllArgsConstructor
 @Getter
 public class ResponseData {
-    private HttpResponse<String> response;
+    private HttpResponse<?> response;
     private Throwable exception;
+    /**
+     * Response's body, null if it was streamed
+     */
+    private String body;
+    /**
+     * Values of JSON paths (path -> value) if response's body was streamed, null if it was not streamed or is not valid JSON
+     */
+    private Map<String, JsonElement> extractedJsonPaths;
+
+    public boolean isStreamed() {
+        return body == null;
+    }
 }
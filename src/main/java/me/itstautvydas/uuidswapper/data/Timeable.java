@@ -1,12 +1,49 @@
 package me.itstautvydas.uuidswapper.data;
 
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.ToString;
 
-@RequiredArgsConstructor
 @Getter
 @ToString
 public class Timeable {
-    private final long createdAt, updatedAt;
+    private long createdAt;
+    @Setter
+    private long updatedAt;
+    // Time to keep in milliseconds since last update, -1 to keep forever
+    private long timeKeep = -1;
+
+    public Timeable(long createdAt, long updatedAt) {
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * @param createdAt Creation time, null - current time
+     * @param updatedAt Update time, null - current time
+     */
+    public Timeable updateTime(Long createdAt, Long updatedAt) {
+        var now = System.currentTimeMillis();
+        this.createdAt = createdAt == null ? now : createdAt;
+        this.updatedAt = updatedAt == null ? now : updatedAt;
+        return this;
+    }
+
+    public Timeable setTimeKeep(long timeKeep) {
+        this.timeKeep = timeKeep;
+        return this;
+    }
+
+    /**
+     * @return For how long (milliseconds) it has been expired, 0 if it's not expired (or update time is unknown)
+     */
+    public long getExpiredFor() {
+        if (timeKeep < 0 || updatedAt <= 0)
+            return 0;
+        return Math.max(System.currentTimeMillis() - updatedAt - timeKeep, 0);
+    }
+
+    public boolean isExpired() {
+        return getExpiredFor() > 0;
+    }
 }
@@ -3,9 +3,11 @@ package me.itstautvydas.uuidswapper.database;
 import lombok.Getter;
 import me.itstautvydas.uuidswapper.config.Configuration;
 import me.itstautvydas.uuidswapper.data.DatabaseObject;
+import me.itstautvydas.uuidswapper.data.NoProfileData;
 import me.itstautvydas.uuidswapper.data.PlayerData;
 import me.itstautvydas.uuidswapper.multiplatform.MultiPlatform;
 import me.itstautvydas.uuidswapper.data.OnlinePlayerData;
+import me.itstautvydas.uuidswapper.service.ServiceStatistics;
 
 import java.util.*;
 
@@ -63,6 +65,18 @@ public class CacheDatabaseManager {
                 } catch (Exception ex) {
                     driver.error("Failed to create %s table", ex, DriverImplementation.RANDOM_PLAYER_CACHE_TABLE);
                 }
+
+                try {
+                    tableBasedDriver.createServiceStatisticsTable();
+                } catch (Exception ex) {
+                    driver.error("Failed to create %s table", ex, DriverImplementation.SERVICE_STATISTICS_TABLE);
+                }
+
+                try {
+                    tableBasedDriver.createNoProfileCacheTable();
+                } catch (Exception ex) {
+                    driver.error("Failed to create %s table", ex, DriverImplementation.NO_PROFILE_CACHE_TABLE);
+                }
             }
         } catch (Exception ex) {
             driver.error("Failed to initialize %s driver!", ex, driver.getName());
@@ -94,6 +108,62 @@ public class CacheDatabaseManager {
         }
     }
 
+    public boolean storeNoProfileCache(NoProfileData player) {
+        try {
+            driver.debug("Trying to store player without online profile (username => %s)", player.getUsername());
+            driver.storeNoProfileCache(player);
+            return true;
+        } catch (Exception ex) {
+            driver.error("Failed to store player without online profile for %s", ex, player.getUsername());
+            return false;
+        }
+    }
+
+    public DatabaseObject<NoProfileData> getNoProfileCache(String username) {
+        NoProfileData data = null;
+        Exception exception = null;
+        try {
+            data = driver.getNoProfileCache(username);
+        } catch (Exception ex) {
+            exception = ex;
+        }
+        return new DatabaseObject<>(data, exception, driver, username) {
+            @Override
+            public DatabaseObject<NoProfileData> printErrorIfAny() {
+                driver.error("Failed to get player without online profile (%s) from the database", exception, key);
+                return this;
+            }
+        };
+    }
+
+    public boolean storeServiceStatistics(List<ServiceStatistics> statistics) {
+        try {
+            driver.debug("Trying to store statistics of %s service(s)", statistics.size());
+            driver.storeServiceStatistics(statistics);
+            return true;
+        } catch (Exception ex) {
+            driver.error("Failed to store service statistics", ex);
+            return false;
+        }
+    }
+
+    public DatabaseObject<List<ServiceStatistics>> getServiceStatistics() {
+        List<ServiceStatistics> data = null;
+        Exception exception = null;
+        try {
+            data = driver.getServiceStatistics();
+        } catch (Exception ex) {
+            exception = ex;
+        }
+        return new DatabaseObject<>(data, exception, driver, null) {
+            @Override
+            public DatabaseObject<List<ServiceStatistics>> printErrorIfAny() {
+                driver.error("Failed to get stored service statistics", exception);
+                return this;
+            }
+        };
+    }
+
     public DatabaseObject<List<OnlinePlayerData>> getOnlinePlayersCache() {
         List<OnlinePlayerData> data = null;
         Exception exception = null;
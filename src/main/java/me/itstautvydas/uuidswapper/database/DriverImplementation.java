@@ -6,11 +6,13 @@ import me.itstautvydas.uuidswapper.annotation.RequiredProperty;
 import me.itstautvydas.uuidswapper.config.Configuration;
 import me.itstautvydas.uuidswapper.json.Jsonable;
 import me.itstautvydas.uuidswapper.multiplatform.MultiPlatform;
+import me.itstautvydas.uuidswapper.data.NoProfileData;
 import me.itstautvydas.uuidswapper.data.OnlinePlayerData;
 import me.itstautvydas.uuidswapper.data.PlayerData;
 import me.itstautvydas.uuidswapper.json.PostProcessable;
 import me.itstautvydas.uuidswapper.processor.ReadMeDescription;
 import me.itstautvydas.uuidswapper.processor.ReadMeExtraFields;
+import me.itstautvydas.uuidswapper.service.ServiceStatistics;
 
 import java.net.URL;
 import java.net.URLClassLoader;
@@ -32,11 +34,19 @@ public abstract class DriverImplementation implements PostProcessable, Jsonable
 
     public static final String ONLINE_UUID_CACHE_TABLE = "online_uuid_cache";
     public static final String RANDOM_PLAYER_CACHE_TABLE = "random_player";
+    public static final String SERVICE_STATISTICS_TABLE = "service_statistics";
+    public static final String NO_PROFILE_CACHE_TABLE = "no_profile_cache";
 
     public static final String KEY_OVERWRITE_UUID = "modified_uuid";
     public static final String KEY_USERNAME = "username";
     public static final String KEY_ORIGINAL_UUID = "uuid";
     public static final String KEY_PROPERTIES = "properties";
+    public static final String KEY_SERVICE_NAME = "service";
+    public static final String KEY_AVERAGE_LATENCY = "average_latency";
+    public static final String KEY_SUCCESS_RATE = "success_rate";
+    public static final String KEY_SAMPLES = "samples";
+    public static final String KEY_ALLOWED_TO_JOIN = "allowed_to_join";
+    public static final String KEY_DISCONNECT_MESSAGE = "disconnect_message";
 
     @RequiredProperty
     @SerializedName("name")
@@ -149,4 +159,16 @@ public abstract class DriverImplementation implements PostProcessable, Jsonable
     public abstract void storeRandomPlayerCache(PlayerData player) throws Exception;
     public abstract PlayerData getRandomPlayerCache(UUID uuid) throws Exception;
     public abstract List<PlayerData> getRandomPlayersCache() throws Exception;
+
+    // Drivers which don't override these do not keep service statistics between restarts
+    public void storeServiceStatistics(List<ServiceStatistics> statistics) throws Exception {}
+    public List<ServiceStatistics> getServiceStatistics() throws Exception {
+        return null;
+    }
+
+    // Drivers which don't override these only keep players without online profile in memory
+    public void storeNoProfileCache(NoProfileData player) throws Exception {}
+    public NoProfileData getNoProfileCache(String username) throws Exception {
+        return null;
+    }
 }
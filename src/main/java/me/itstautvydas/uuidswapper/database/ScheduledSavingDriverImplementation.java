@@ -2,6 +2,7 @@ package me.itstautvydas.uuidswapper.database;
 
 import lombok.Getter;
 import lombok.Setter;
+import me.itstautvydas.uuidswapper.data.NoProfileData;
 import me.itstautvydas.uuidswapper.data.OnlinePlayerData;
 import me.itstautvydas.uuidswapper.data.PlayerData;
 import me.itstautvydas.uuidswapper.multiplatform.MultiPlatform;
@@ -38,13 +39,15 @@ public abstract class ScheduledSavingDriverImplementation<T> extends DriverImple
             onPeriodicTick();
             if (ticked == saveInterval * 60) {
                 lastSavedAt = TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
-                MultiPlatform.get().scheduleTaskAsync(() -> {
+                var accepted = MultiPlatform.get().getDatabaseExecutor().tryExecute(() -> {
                     try {
                         saveAsync();
                     } catch (Exception ex) {
                         error("Failed to save data to the database!", ex);
                     }
                 });
+                if (!accepted)
+                    error("Database executor is busy, data will be saved on the next interval", null);
                 resetTicked();
             }
         }, saveInterval * 60, 0);
@@ -101,6 +104,12 @@ public abstract class ScheduledSavingDriverImplementation<T> extends DriverImple
             queue.offer(player);
     }
 
+    @Override
+    public void storeNoProfileCache(NoProfileData player) {
+        if (player != null)
+            queue.offer(player);
+    }
+
     public abstract T onBatchStart() throws Exception;
     public abstract void onBatchCommit(List<Queueable> batch, T arg) throws Exception;
     public abstract void onBatchEnd(T arg) throws Exception;
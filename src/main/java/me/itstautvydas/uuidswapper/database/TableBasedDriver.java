@@ -3,4 +3,6 @@ package me.itstautvydas.uuidswapper.database;
 public interface TableBasedDriver {
     void createOnlineUuidCacheTable() throws Exception;
     void createRandomizedPlayerDataTable() throws Exception;
+    void createServiceStatisticsTable() throws Exception;
+    void createNoProfileCacheTable() throws Exception;
 }
@@ -7,13 +7,16 @@ import me.itstautvydas.uuidswapper.Utils;
 import me.itstautvydas.uuidswapper.database.Queueable;
 import me.itstautvydas.uuidswapper.database.TableBasedDriver;
 import me.itstautvydas.uuidswapper.multiplatform.MultiPlatform;
+import me.itstautvydas.uuidswapper.data.NoProfileData;
 import me.itstautvydas.uuidswapper.data.OnlinePlayerData;
 import me.itstautvydas.uuidswapper.data.PlayerData;
 import me.itstautvydas.uuidswapper.data.ProfilePropertyWrapper;
+import me.itstautvydas.uuidswapper.data.Timeable;
 import me.itstautvydas.uuidswapper.database.ScheduledSavingDriverImplementation;
 import me.itstautvydas.uuidswapper.processor.ReadMeCallSuperClass;
 import me.itstautvydas.uuidswapper.processor.ReadMeDescription;
 import me.itstautvydas.uuidswapper.processor.ReadMeTitle;
+import me.itstautvydas.uuidswapper.service.ServiceStatistics;
 import org.jetbrains.annotations.NotNull;
 
 import java.nio.file.Path;
@@ -30,6 +33,9 @@ import java.util.stream.Collectors;
 @ReadMeDescription("SQLite (JDBC) file-based driver to use for caching player data. The driver is not bundled with the plugin but you have the ability to automatically download it and load it.")
 @ReadMeCallSuperClass()
 public class SQLiteImplementation extends ScheduledSavingDriverImplementation<Connection> implements TableBasedDriver {
+    private static final String CREATED_AT_MILLIS = CREATED_AT + "_millis";
+    private static final String UPDATED_AT_MILLIS = UPDATED_AT + "_millis";
+
     private transient Path databaseFilePath;
     private transient String connectionUrl;
 
@@ -141,10 +147,21 @@ public class SQLiteImplementation extends ScheduledSavingDriverImplementation<Co
                 properties == null ? null : Utils.DEFAULT_GSON.fromJson(
                         properties,
                         new TypeToken<@NotNull List<ProfilePropertyWrapper>>(){}.getType()
-                )
+                ),
+                new Timeable(resultSet.getLong(CREATED_AT_MILLIS), resultSet.getLong(UPDATED_AT_MILLIS))
         );
     }
 
+    /**
+     * Timestamps are stored as UTC text, they're selected as milliseconds too
+     */
+    private static String selectAllFrom(String table) {
+        return "SELECT *, "
+                + "CAST(strftime('%s', " + CREATED_AT + ") AS INTEGER) * 1000 AS " + CREATED_AT_MILLIS + ", "
+                + "CAST(strftime('%s', " + UPDATED_AT + ") AS INTEGER) * 1000 AS " + UPDATED_AT_MILLIS
+                + " FROM " + table;
+    }
+
     @Override
     public void createOnlineUuidCacheTable() throws Exception {
         try (var connection = createConnection(); var stmt = connection.createStatement()) {
@@ -169,9 +186,92 @@ public class SQLiteImplementation extends ScheduledSavingDriverImplementation<Co
         }
     }
 
+    @Override
+    public void createServiceStatisticsTable() throws Exception {
+        try (var connection = createConnection(); var stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS " + SERVICE_STATISTICS_TABLE + " ("
+                    + KEY_SERVICE_NAME + " TEXT NOT NULL PRIMARY KEY, "
+                    + KEY_AVERAGE_LATENCY + " REAL NOT NULL, "
+                    + KEY_SUCCESS_RATE + " REAL NOT NULL, "
+                    + KEY_SAMPLES + " INTEGER NOT NULL, "
+                    + UPDATED_AT + " TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        }
+    }
+
+    @Override
+    public void createNoProfileCacheTable() throws Exception {
+        try (var connection = createConnection(); var stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS " + NO_PROFILE_CACHE_TABLE + " ("
+                    + KEY_USERNAME + " TEXT NOT NULL PRIMARY KEY, "
+                    + KEY_SERVICE_NAME + " TEXT NOT NULL, "
+                    + KEY_ALLOWED_TO_JOIN + " INTEGER NOT NULL, "
+                    + KEY_DISCONNECT_MESSAGE + " TEXT NULL, "
+                    + CREATED_AT + " INTEGER NOT NULL)");
+        }
+    }
+
+    @Override
+    public NoProfileData getNoProfileCache(String username) throws Exception {
+        var sql = "SELECT * FROM " + NO_PROFILE_CACHE_TABLE + " WHERE " + KEY_USERNAME + " = ? LIMIT 1";
+
+        try (var connection = createConnection(); var prepare = connection.prepareStatement(sql)) {
+            prepare.setString(1, username);
+            try (var resultSet = prepare.executeQuery()) {
+                if (resultSet.next())
+                    return new NoProfileData(
+                            resultSet.getString(KEY_USERNAME),
+                            resultSet.getString(KEY_SERVICE_NAME),
+                            resultSet.getBoolean(KEY_ALLOWED_TO_JOIN),
+                            resultSet.getString(KEY_DISCONNECT_MESSAGE),
+                            resultSet.getLong(CREATED_AT)
+                    );
+            }
+        }
+        return null;
+    }
+
+    // Only a few rows, stored right away instead of waiting for the next save
+    @Override
+    public void storeServiceStatistics(List<ServiceStatistics> statistics) throws Exception {
+        var sql = "INSERT OR REPLACE INTO " + SERVICE_STATISTICS_TABLE + " ("
+                + KEY_SERVICE_NAME + ", "
+                + KEY_AVERAGE_LATENCY + ", "
+                + KEY_SUCCESS_RATE + ", "
+                + KEY_SAMPLES
+                + ") VALUES (?, ?, ?, ?)";
+
+        try (var connection = createConnection(); var prepare = connection.prepareStatement(sql)) {
+            for (var service : statistics) {
+                prepare.setString(1, service.getServiceName());
+                prepare.setDouble(2, service.getAverageLatency());
+                prepare.setDouble(3, service.getSuccessRate());
+                prepare.setLong(4, service.getSamples());
+                prepare.addBatch();
+            }
+            prepare.executeBatch();
+        }
+    }
+
+    @Override
+    public List<ServiceStatistics> getServiceStatistics() throws Exception {
+        var list = new ArrayList<ServiceStatistics>();
+        var sql = "SELECT * FROM " + SERVICE_STATISTICS_TABLE;
+
+        try (var conn = createConnection(); var pre = conn.prepareStatement(sql); var resultSet = pre.executeQuery()) {
+            while (resultSet.next())
+                list.add(new ServiceStatistics(
+                        resultSet.getString(KEY_SERVICE_NAME),
+                        resultSet.getDouble(KEY_AVERAGE_LATENCY),
+                        resultSet.getDouble(KEY_SUCCESS_RATE),
+                        resultSet.getLong(KEY_SAMPLES)
+                ));
+        }
+        return list.isEmpty() ? null : list;
+    }
+
     @Override
     public OnlinePlayerData getOnlinePlayerCache(UUID originalUniqueId) throws Exception {
-        var sql = "SELECT * FROM " + ONLINE_UUID_CACHE_TABLE + " WHERE " + KEY_ORIGINAL_UUID + " = ? LIMIT 1";
+        var sql = selectAllFrom(ONLINE_UUID_CACHE_TABLE) + " WHERE " + KEY_ORIGINAL_UUID + " = ? LIMIT 1";
 
         try (var connection = createConnection(); var prepare = connection.prepareStatement(sql)) {
             prepare.setString(1, originalUniqueId.toString());
@@ -186,7 +286,7 @@ public class SQLiteImplementation extends ScheduledSavingDriverImplementation<Co
     @Override
     public List<OnlinePlayerData> getOnlinePlayersCache() throws Exception {
         var list = new ArrayList<OnlinePlayerData>();
-        var sql = "SELECT * FROM " + ONLINE_UUID_CACHE_TABLE;
+        var sql = selectAllFrom(ONLINE_UUID_CACHE_TABLE);
 
         try (var conn = createConnection(); var pre = conn.prepareStatement(sql); var resultSet = pre.executeQuery()) {
             while (resultSet.next())
@@ -198,7 +298,7 @@ public class SQLiteImplementation extends ScheduledSavingDriverImplementation<Co
     @Override
     public List<PlayerData> getRandomPlayersCache() throws Exception {
         var list = new ArrayList<PlayerData>();
-        var sql = "SELECT * FROM " + RANDOM_PLAYER_CACHE_TABLE;
+        var sql = selectAllFrom(RANDOM_PLAYER_CACHE_TABLE);
 
         try (var conn = createConnection(); var pre = conn.prepareStatement(sql); var resultSet = pre.executeQuery()) {
             while (resultSet.next())
@@ -209,7 +309,7 @@ public class SQLiteImplementation extends ScheduledSavingDriverImplementation<Co
 
     @Override
     public PlayerData getRandomPlayerCache(UUID originalUniqueId) throws Exception {
-        var sql = "SELECT * FROM " + RANDOM_PLAYER_CACHE_TABLE + " WHERE " + KEY_ORIGINAL_UUID + " = ? LIMIT 1";
+        var sql = selectAllFrom(RANDOM_PLAYER_CACHE_TABLE) + " WHERE " + KEY_ORIGINAL_UUID + " = ? LIMIT 1";
 
         try (var connection = createConnection(); var prepare = connection.prepareStatement(sql)) {
             prepare.setString(1, originalUniqueId.toString());
@@ -248,6 +348,14 @@ public class SQLiteImplementation extends ScheduledSavingDriverImplementation<Co
                         + KEY_OVERWRITE_UUID + ", "
                         + KEY_PROPERTIES
                         + ") VALUES (?, ?, ?)";
+            } else if (data instanceof NoProfileData) {
+                sql = "INSERT OR REPLACE INTO " + NO_PROFILE_CACHE_TABLE + " ("
+                        + KEY_USERNAME + ", "
+                        + KEY_SERVICE_NAME + ", "
+                        + KEY_ALLOWED_TO_JOIN + ", "
+                        + KEY_DISCONNECT_MESSAGE + ", "
+                        + CREATED_AT
+                        + ") VALUES (?, ?, ?, ?, ?)";
             } else {
                 continue;
             }
@@ -267,6 +375,12 @@ public class SQLiteImplementation extends ScheduledSavingDriverImplementation<Co
                 ps.setString(1, player.getOriginalUniqueId().toString());
                 ps.setString(2, player.getUniqueId().toString());
                 ps.setString(3, Utils.DEFAULT_GSON.toJson(player.getProperties()));
+            } else if (data instanceof NoProfileData player) {
+                ps.setString(1, player.getUsername());
+                ps.setString(2, player.getServiceName());
+                ps.setBoolean(3, player.isAllowedToJoin());
+                ps.setString(4, player.getDisconnectMessage());
+                ps.setLong(5, player.getCreatedAt());
             }
 
             ps.addBatch();
@@ -0,0 +1,7 @@
+package me.itstautvydas.uuidswapper.enums;
+
+public enum AdmissionLane {
+    // Player was fetched before (expired cached data)
+    KNOWN,
+    UNKNOWN
+}
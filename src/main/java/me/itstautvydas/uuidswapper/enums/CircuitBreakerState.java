@@ -0,0 +1,7 @@
+package me.itstautvydas.uuidswapper.enums;
+
+public enum CircuitBreakerState {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+}
@@ -0,0 +1,6 @@
+package me.itstautvydas.uuidswapper.enums;
+
+public enum ExecutorRejectionPolicy {
+    ABORT,
+    CALLER_RUNS
+}
@@ -0,0 +1,7 @@
+package me.itstautvydas.uuidswapper.enums;
+
+public enum StaleCacheMode {
+    NONE,
+    STALE_WHILE_REVALIDATE,
+    STALE_IF_ERROR
+}
@@ -0,0 +1,9 @@
+package me.itstautvydas.uuidswapper.exception;
+
+import java.io.IOException;
+
+public class ResponseTooLargeException extends IOException {
+    public ResponseTooLargeException(long maxBytes) {
+        super("Response's body is larger than " + maxBytes + " bytes");
+    }
+}
@@ -0,0 +1,66 @@
+package me.itstautvydas.uuidswapper.helper;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keys mapped to the time (milliseconds) they were added at, all of them expire after the same amount of time.
+ * Keys expire in the order they were added, so adding and checking a key is O(1) and expiring only visits expired keys.
+ */
+public class ExpiringMap<K> {
+    private final Map<K, Long> addedAt = new ConcurrentHashMap<>();
+    // Oldest first, a key added again is left here too and skipped once it's polled
+    private final Queue<Map.Entry<K, Long>> expiryOrder = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock expiring = new ReentrantLock();
+
+    public void put(K key, long time) {
+        addedAt.put(key, time);
+        expiryOrder.add(Map.entry(key, time));
+    }
+
+    /**
+     * @param keepTime Time in milliseconds to keep keys for
+     * @return Time the key was added at, null if it's not in the map or has expired
+     */
+    public Long get(K key, long keepTime) {
+        expire(keepTime);
+        var time = addedAt.get(key);
+        if (time == null || time + keepTime <= System.currentTimeMillis())
+            return null;
+        return time;
+    }
+
+    /**
+     * Remove expired keys, skipped if another thread is already doing it
+     * @param keepTime Time in milliseconds to keep keys for
+     */
+    public void expire(long keepTime) {
+        if (!expiring.tryLock())
+            return;
+        try {
+            var now = System.currentTimeMillis();
+            for (var entry = expiryOrder.peek(); entry != null && entry.getValue() + keepTime <= now; entry = expiryOrder.peek()) {
+                expiryOrder.poll();
+                addedAt.remove(entry.getKey(), entry.getValue());
+            }
+        } finally {
+            expiring.unlock();
+        }
+    }
+
+    public void clear() {
+        addedAt.clear();
+        expiryOrder.clear();
+    }
+
+    /**
+     * @return Read-only view of the keys, might contain expired keys until {@link #expire(long)} is called
+     */
+    public Map<K, Long> asMap() {
+        return Collections.unmodifiableMap(addedAt);
+    }
+}
@@ -0,0 +1,72 @@
+package me.itstautvydas.uuidswapper.helper;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Placeholders where a whole group (e.g. {@code response.*}) can be backed by a resolver, a value is only computed
+ * when it is looked up. Iterating this map only shows values that were put or already resolved.
+ */
+public class PlaceholderMap extends AbstractMap<String, Object> {
+    private final Map<String, Object> values = new HashMap<>();
+    private final Map<String, Function<String, ObjectHolder<Object>>> resolvers = new LinkedHashMap<>();
+
+    /**
+     * @param prefix Prefix of placeholders this resolver handles
+     * @param resolver Gets placeholder's name without the prefix, returns null if such placeholder does not exist
+     */
+    public void putResolver(String prefix, Function<String, ObjectHolder<Object>> resolver) {
+        resolvers.put(prefix, resolver);
+    }
+
+    private ObjectHolder<Object> resolve(Object key) {
+        if (values.containsKey(key))
+            return new ObjectHolder<>(values.get(key));
+        if (!(key instanceof String name))
+            return null;
+        for (var entry : resolvers.entrySet()) {
+            if (!name.startsWith(entry.getKey()))
+                continue;
+            var resolved = entry.getValue().apply(name.substring(entry.getKey().length()));
+            if (resolved != null) {
+                values.put(name, resolved.get());
+                return resolved;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Object get(Object key) {
+        var resolved = resolve(key);
+        return resolved == null ? null : resolved.get();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return resolve(key) != null;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        return values.put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        return values.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        values.clear();
+        resolvers.clear();
+    }
+
+    @Override
+    public @NotNull Set<Entry<String, Object>> entrySet() {
+        return values.entrySet();
+    }
+}
@@ -0,0 +1,112 @@
+package me.itstautvydas.uuidswapper.helper;
+
+import lombok.Getter;
+import me.itstautvydas.uuidswapper.Utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Text split into literals and placeholders once, so it can be rendered in a single pass.
+ */
+public final class PlaceholderTemplate {
+    @Getter
+    private final String template;
+    // Each literal is followed by the placeholder with the same index, the last literal has none
+    private final String[] literals;
+    private final String[] names;
+    private final int literalsLength;
+
+    private PlaceholderTemplate(String template, String[] literals, String[] names) {
+        this.template = template;
+        this.literals = literals;
+        this.names = names;
+        int length = 0;
+        for (var literal : literals)
+            length += literal.length();
+        this.literalsLength = length;
+    }
+
+    /**
+     * Only {@code {name}} with a valid placeholder name is a placeholder, any other brace (e.g. JSON) is left as it is
+     * @return Compiled template, null if template is null
+     */
+    public static PlaceholderTemplate compile(String template) {
+        if (template == null)
+            return null;
+        var literals = new ArrayList<String>();
+        var names = new ArrayList<String>();
+        int literalStart = 0;
+        int start = template.indexOf(Utils.PLACEHOLDER_PREFIX);
+        while (start != -1) {
+            int end = findEnd(template, start);
+            if (end == -1) {
+                start = template.indexOf(Utils.PLACEHOLDER_PREFIX, start + 1);
+                continue;
+            }
+            literals.add(template.substring(literalStart, start));
+            names.add(template.substring(start + Utils.PLACEHOLDER_PREFIX.length(), end));
+            literalStart = end + Utils.PLACEHOLDER_SUFFIX.length();
+            start = template.indexOf(Utils.PLACEHOLDER_PREFIX, literalStart);
+        }
+        literals.add(template.substring(literalStart));
+        return new PlaceholderTemplate(template, literals.toArray(String[]::new), names.toArray(String[]::new));
+    }
+
+    /**
+     * @param start Index of the placeholder's prefix
+     * @return Index of the placeholder's suffix, -1 if prefix does not start a placeholder
+     */
+    private static int findEnd(String template, int start) {
+        int from = start + Utils.PLACEHOLDER_PREFIX.length();
+        for (int i = from; i < template.length(); i++) {
+            if (template.startsWith(Utils.PLACEHOLDER_SUFFIX, i))
+                return i == from ? -1 : i;
+            if (!isNameCharacter(template.charAt(i)))
+                return -1;
+        }
+        return -1;
+    }
+
+    /**
+     * Names are keys like {@code error.class-name} or {@code response.properties[0].value}
+     */
+    private static boolean isNameCharacter(char character) {
+        return Character.isLetterOrDigit(character)
+                || character == '.' || character == '-' || character == '_' || character == '[' || character == ']';
+    }
+
+    /**
+     * @return Names of placeholders in the order they appear, including duplicates
+     */
+    public List<String> getNames() {
+        return List.of(names);
+    }
+
+    public boolean hasPlaceholders() {
+        return names.length != 0;
+    }
+
+    /**
+     * Placeholders which are not in the map are left as they are, null values are rendered as "null"
+     */
+    public String render(Map<String, Object> placeholders) {
+        if (names.length == 0 || placeholders == null)
+            return template;
+        var builder = new StringBuilder(literalsLength + names.length * 16);
+        for (int i = 0; i < names.length; i++) {
+            builder.append(literals[i]);
+            if (placeholders.containsKey(names[i]))
+                builder.append(placeholders.get(names[i]));
+            else
+                builder.append(Utils.PLACEHOLDER_PREFIX).append(names[i]).append(Utils.PLACEHOLDER_SUFFIX);
+        }
+        return builder.append(literals[names.length]).toString();
+    }
+
+    @Override
+    public String toString() {
+        return template;
+    }
+}
@@ -0,0 +1,104 @@
+package me.itstautvydas.uuidswapper.json;
+
+import com.google.gson.JsonElement;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Objects;
+
+/**
+ * JSON path (e.g. {@code data.players[0].id}) parsed once into key and array index steps.
+ */
+public final class JsonPath {
+    @Getter
+    private final String path;
+    // Either key (index is -1) or array index (key is null) for each step
+    private final String[] keys;
+    private final int[] indexes;
+
+    private JsonPath(String path, String[] keys, int[] indexes) {
+        this.path = path;
+        this.keys = keys;
+        this.indexes = indexes;
+    }
+
+    /**
+     * @param path JSON path, empty path points to the root element
+     * @return Compiled path, null if path is null
+     */
+    public static JsonPath compile(String path) {
+        if (path == null)
+            return null;
+        var keys = new ArrayList<String>();
+        var indexes = new ArrayList<Integer>();
+        if (!path.isEmpty()) {
+            for (var part : path.split("\\.")) {
+                if (part.matches(".+\\[\\d+]")) { // Array indexes - key[0]
+                    keys.add(part.substring(0, part.indexOf('[')));
+                    indexes.add(-1);
+                    keys.add(null);
+                    indexes.add(Integer.parseInt(part.substring(part.indexOf('[') + 1, part.indexOf(']'))));
+                } else if (part.matches("\\[\\d+]")) { // Direct array indexes - [0]
+                    keys.add(null);
+                    indexes.add(Integer.parseInt(part.substring(1, part.indexOf(']'))));
+                } else { // Normal objects
+                    keys.add(part);
+                    indexes.add(-1);
+                }
+            }
+        }
+        return new JsonPath(path, keys.toArray(String[]::new), indexes.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * @return Value at this path, null if there's no such value
+     */
+    public JsonElement get(JsonElement element) {
+        if (element == null || element.isJsonNull())
+            return null;
+        return get(element, 0);
+    }
+
+    /**
+     * @param from Step to start from, {@code element} is expected to be the value of the previous step
+     */
+    JsonElement get(JsonElement element, int from) {
+        for (int i = from; i < keys.length && element != null; i++) {
+            if (keys[i] != null) {
+                element = element.isJsonObject() ? element.getAsJsonObject().get(keys[i]) : null;
+            } else {
+                if (!element.isJsonArray() || indexes[i] >= element.getAsJsonArray().size())
+                    return null;
+                element = element.getAsJsonArray().get(indexes[i]);
+            }
+        }
+        return element;
+    }
+
+    int size() {
+        return keys.length;
+    }
+
+    String getKey(int step) {
+        return keys[step];
+    }
+
+    int getIndex(int step) {
+        return indexes[step];
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        return object instanceof JsonPath other && path.equals(other.path);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(path);
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
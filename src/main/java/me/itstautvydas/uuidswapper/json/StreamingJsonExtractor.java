@@ -0,0 +1,77 @@
+package me.itstautvydas.uuidswapper.json;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Reads only values of the given JSON paths from the stream, everything else is skipped without building a JSON tree.
+ */
+public class StreamingJsonExtractor {
+    private StreamingJsonExtractor() {}
+
+    /**
+     * @param reader JSON input, it is not closed
+     * @param paths JSON paths to extract
+     * @return Map of path -> value, paths which do not exist in the JSON are not included
+     * @throws IOException If JSON is malformed
+     */
+    public static Map<String, JsonElement> extract(Reader reader, Collection<JsonPath> paths) throws IOException {
+        var result = new HashMap<String, JsonElement>();
+        var jsonReader = new JsonReader(reader);
+        jsonReader.setStrictness(Strictness.LENIENT); // Same as JsonParser#parseString
+        read(jsonReader, new ArrayList<>(paths), 0, result);
+        return result;
+    }
+
+    private static void read(JsonReader reader, List<JsonPath> paths, int depth, Map<String, JsonElement> result) throws IOException {
+        if (paths.stream().anyMatch(path -> path.size() == depth)) {
+            // At least one path ends here, so this value is needed as a tree anyway
+            var element = JsonParser.parseReader(reader);
+            for (var path : paths) {
+                var value = path.get(element, depth);
+                if (value != null)
+                    result.put(path.getPath(), value);
+            }
+            return;
+        }
+
+        switch (reader.peek()) {
+            case BEGIN_OBJECT -> {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    var name = reader.nextName();
+                    readOrSkip(reader, paths, depth, path -> name.equals(path.getKey(depth)), result);
+                }
+                reader.endObject();
+            }
+            case BEGIN_ARRAY -> {
+                reader.beginArray();
+                for (int i = 0; reader.hasNext(); i++) {
+                    var index = i;
+                    readOrSkip(reader, paths, depth, path -> path.getKey(depth) == null && path.getIndex(depth) == index, result);
+                }
+                reader.endArray();
+            }
+            default -> reader.skipValue();
+        }
+    }
+
+    private static void readOrSkip(JsonReader reader, List<JsonPath> paths, int depth, Predicate<JsonPath> matches,
+                                   Map<String, JsonElement> result) throws IOException {
+        var matching = new ArrayList<JsonPath>();
+        for (var path : paths)
+            if (matches.test(path))
+                matching.add(path);
+        if (matching.isEmpty())
+            reader.skipValue();
+        else
+            read(reader, matching, depth + 1, result);
+    }
+}
@@ -20,15 +20,21 @@ import me.itstautvydas.uuidswapper.helper.ObjectHolder;
 import me.itstautvydas.uuidswapper.helper.SimplifiedLogger;
 import me.itstautvydas.uuidswapper.json.*;
 import me.itstautvydas.uuidswapper.randomizer.PlayerRandomizer;
+import me.itstautvydas.uuidswapper.service.AdmissionController;
 import me.itstautvydas.uuidswapper.service.PlayerDataFetcher;
+import me.itstautvydas.uuidswapper.service.UsernameIndex;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.file.AccessDeniedException;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
@@ -138,6 +144,16 @@ public abstract class MultiPlatform<P, L, S, M> implements SimplifiedLogger {
     private CacheDatabaseManager database;
     @Getter
     private PlayerRandomizer playerRandomizer;
+    @Getter
+    private PluginExecutor networkExecutor;
+    @Getter
+    private PluginExecutor httpClientExecutor;
+    @Getter
+    private PluginExecutor databaseExecutor;
+    @Getter
+    private PluginExecutor generalExecutor;
+    @Getter
+    private final AdmissionController admissionController = new AdmissionController();
 
     public final Path getConfigurationPath() {
         return dataDirectory.resolve("configuration.json");
@@ -175,9 +191,17 @@ public abstract class MultiPlatform<P, L, S, M> implements SimplifiedLogger {
                 throw (RuntimeException)ex; // Very silly workaround lol, I just don't like seeing "Caused by..." okay?
             throw new RuntimeException(ex);
         }
+        var executors = configuration.getExecutors();
+        networkExecutor = new PluginExecutor("Network", executors.getNetwork());
+        // HTTP client shuts down if its executor rejects a task, limit is applied before fetches start instead
+        httpClientExecutor = new PluginExecutor("HttpClient", executors.getNetwork().withoutQueueLimit());
+        databaseExecutor = new PluginExecutor("Database", executors.getDatabase());
+        generalExecutor = new PluginExecutor("General", executors.getGeneral());
+        logInfo("Executors", "Using %s for blocking tasks.",
+                networkExecutor.isVirtual() ? "virtual threads" : "platform threads");
         database = new CacheDatabaseManager();
-        if (database.getConfiguration().isEnabled())
-            database.loadDriverFromConfiguration();
+        if (database.getConfiguration().isEnabled() && database.loadDriverFromConfiguration())
+            PlayerDataFetcher.loadServiceStatistics();
     }
 
     public void onEnable() {
@@ -185,8 +209,13 @@ public abstract class MultiPlatform<P, L, S, M> implements SimplifiedLogger {
     }
 
     public void onDisable() {
-        if (database != null)
+        if (database != null) {
+            PlayerDataFetcher.saveServiceStatistics();
             database.clear();
+        }
+        for (var executor : new PluginExecutor[] {networkExecutor, httpClientExecutor, databaseExecutor, generalExecutor})
+            if (executor != null)
+                executor.shutdown(5000);
     }
 
     private void logSwappedUuid(Map.Entry<String, String> entry) {
@@ -206,14 +235,29 @@ public abstract class MultiPlatform<P, L, S, M> implements SimplifiedLogger {
         var start = System.nanoTime();
         saveDefaultConfiguration();
 
+        var previous = configuration;
         var configurations = loadConfiguration(getConfigurationPath(), Configuration.class);
         configuration = configurations.getFirst();
         rawConfiguration = configurations.getSecond();
+        for (var service : configuration.getOnlineAuthentication().getServices())
+            if (service.getEndpoint() == null && service.getIndexFile() == null)
+                ConfigurationErrorCollector.collect(GSON, "%s endpoint (or index-file) of service %s".formatted(
+                        ConfigurationErrorCollector.MISSING_PROPERTY, service.getName()), true);
         ConfigurationErrorCollector.print(GSON, (message) -> logWarning(CONFIGURATION_PREFIX, message, null));
         ConfigurationErrorCollector.throwIfAnySevereErrors(GSON);
 
         for (var service : configuration.getOnlineAuthentication().getServices())
             service.setDefaults(configuration.getOnlineAuthentication().getServiceDefaults());
+        for (var service : configuration.getOnlineAuthentication().getServices()) {
+            service.referencePropertiesServicesPlaceholders(configuration.getOnlineAuthentication());
+            service.compileResponseHandlers(rawConfiguration);
+            // Keep statistics of services which still exist
+            var previousService = previous == null ? null : previous.getOnlineAuthentication().getService(service.getName());
+            if (previousService != null)
+                service.setStatistics(previousService.getStatistics());
+            if (service.isLocalIndex())
+                loadUsernameIndex(service);
+        }
 
         if (configuration.getPlayerRandomizer().isEnabled() &&
                 (configuration.getPlayerRandomizer().getUniqueIdSettings().isRandomize() ||
@@ -242,6 +286,18 @@ public abstract class MultiPlatform<P, L, S, M> implements SimplifiedLogger {
         return took;
     }
 
+    private void loadUsernameIndex(Configuration.ServiceConfiguration service) {
+        var file = dataDirectory.resolve(service.getIndexFile());
+        try {
+            service.setUsernameIndex(UsernameIndex.open(file));
+            logInfo(CONFIGURATION_PREFIX, "Loaded username index of %s with %s players.", service.getName(), service.getUsernameIndex().size());
+        } catch (NoSuchFileException ex) {
+            logWarning(CONFIGURATION_PREFIX, "Username index of %s (%s) doesn't exist, build it with the index command!", null, service.getName(), file);
+        } catch (IOException ex) {
+            logWarning(CONFIGURATION_PREFIX, "Failed to load username index of %s!", ex, service.getName());
+        }
+    }
+
     public void handlePlayerDisconnect(String username, UUID uniqueId) {
         if (playerRandomizer != null)
             playerRandomizer.removeGeneratedPlayer(username, uniqueId);
@@ -327,19 +383,19 @@ public abstract class MultiPlatform<P, L, S, M> implements SimplifiedLogger {
             return dummy;
         }
 
-        var timeLeft = new ObjectHolder<Long>(null);
-        if (PlayerDataFetcher.isThrottled(uniqueId, timeLeft)) {
-            disconnectHandler.accept(new Message(configuration.getOnlineAuthentication().getServiceConnectionThrottledMessage(), false)
-                    .replacePlaceholders(Map.of("time-left", timeLeft.get())));
-            return dummy;
+        // Prefetch was throttled by itself, so it's checked first
+        var fetch = playerRandomizer == null ? PlayerDataFetcher.takePrefetch(username, uniqueId) : null;
+        if (fetch == null) {
+            var timeLeft = new ObjectHolder<Long>(null);
+            if (PlayerDataFetcher.isThrottled(uniqueId, timeLeft)) {
+                disconnectHandler.accept(new Message(configuration.getOnlineAuthentication().getServiceConnectionThrottledMessage(), false)
+                        .replacePlaceholders(Map.of("time-left", timeLeft.get())));
+                return dummy;
+            }
+            fetch = createPlayerDataFetcher(username, uniqueId, cacheFetchedData).execute();
         }
 
-        return new PlayerDataFetcher(username, uniqueId, this)
-                .setCacheFetchedData(cacheFetchedData && playerRandomizer == null)
-                .setCacheDatabase(playerRandomizer == null)
-                .setCheckDatabaseCache(true)
-                .updateMessages()
-                .execute()
+        return fetch
                 .handle((fetchedData, ex) -> {
                     if (ex != null) {
                         fetchedData = new BiObjectHolder<>(
@@ -362,6 +418,33 @@ public abstract class MultiPlatform<P, L, S, M> implements SimplifiedLogger {
                 });
     }
 
+    /**
+     * Start fetching player's data as soon as player's username is known, {@link #handlePlayerLogin} takes the
+     * result if it's called for the same player within {@code prefetch-session-time}.
+     * Only call this for offline connections, online ones are skipped by login anyway.
+     * @param username Original username
+     * @param cacheFetchedData Should the fetched data be cached?
+     */
+    public void handlePlayerPrefetch(@NotNull String username, boolean cacheFetchedData) {
+        var onlineAuthentication = configuration.getOnlineAuthentication();
+        // Randomizer changes player's unique ID before fetching
+        if (!onlineAuthentication.isEnabled() || !onlineAuthentication.isPrefetch() || playerRandomizer != null)
+            return;
+        var uniqueId = Utils.generateOfflineUniqueId(username);
+        if (PlayerDataFetcher.isThrottled(uniqueId, null))
+            return;
+        PlayerDataFetcher.parkPrefetch(username, uniqueId, createPlayerDataFetcher(username, uniqueId, cacheFetchedData).execute());
+    }
+
+    private PlayerDataFetcher createPlayerDataFetcher(String username, UUID uniqueId, boolean cacheFetchedData) {
+        return new PlayerDataFetcher(username, uniqueId, this)
+                .setCacheFetchedData(cacheFetchedData && playerRandomizer == null)
+                .setCacheDatabase(playerRandomizer == null)
+                .setCheckDatabaseCache(true)
+                .setShareInFlightRequests(true)
+                .updateMessages();
+    }
+
     public boolean handleGameProfileRequest(
             @NotNull BiObjectHolder<String, UUID> profile,
             @NotNull List<ProfilePropertyWrapper> properties
@@ -494,13 +577,19 @@ public abstract class MultiPlatform<P, L, S, M> implements SimplifiedLogger {
         var old = configuration;
         var old0 = rawConfiguration;
         try {
-            PlayerDataFetcher.forgetLastUsedService();
             var took = reloadConfiguration();
+            PlayerDataFetcher.retainHttpClients(configuration.getOnlineAuthentication()
+                    .getServices()
+                    .stream()
+                    .map(Configuration.ServiceConfiguration::getName)
+                    .toList());
             placeholders.put("took", took);
             database.clear();
             if (!database.loadDriverFromConfiguration()) {
                 placeholders.put("driver", database.getDriver());
                 sendMessage(messageAcceptor, Configuration.CommandMessagesConfiguration::getReloadDatabaseDriverFailed, placeholders);
+            } else {
+                PlayerDataFetcher.loadServiceStatistics();
             }
             sendMessage(messageAcceptor, Configuration.CommandMessagesConfiguration::getReloadSuccess, placeholders);
         } catch (Exception ex) {
@@ -512,14 +601,65 @@ public abstract class MultiPlatform<P, L, S, M> implements SimplifiedLogger {
         }
     }
 
+    public void onIndexCommand(M messageAcceptor, String serviceName, String dump) {
+        var placeholders = getCommandBasePlaceholders();
+        placeholders.put("service", serviceName);
+        var service = configuration.getOnlineAuthentication().getService(serviceName);
+        if (service == null || !service.isLocalIndex()) {
+            sendMessage(messageAcceptor, Configuration.CommandMessagesConfiguration::getIndexUnknownService, placeholders);
+            return;
+        }
+        var input = resolveInDataDirectory(dump);
+        if (input == null) {
+            Utils.addExceptionPlaceholders(new AccessDeniedException(dump, null, "dump must be inside plugin's directory"), placeholders);
+            sendMessage(messageAcceptor, Configuration.CommandMessagesConfiguration::getIndexFailed, placeholders);
+            return;
+        }
+        // Dump might have millions of players
+        generalExecutor.execute(() -> {
+            try {
+                var start = System.nanoTime();
+                var output = dataDirectory.resolve(service.getIndexFile());
+                var result = UsernameIndex.build(input, output);
+                service.setUsernameIndex(UsernameIndex.open(output));
+                placeholders.put("players", result.players());
+                placeholders.put("skipped", result.skipped());
+                placeholders.put("took", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                sendMessage(messageAcceptor, Configuration.CommandMessagesConfiguration::getIndexSuccess, placeholders);
+            } catch (Exception ex) {
+                Utils.addExceptionPlaceholders(ex, placeholders);
+                logWarning("IndexCommand", "Failed to build username index of %s!", ex, serviceName);
+                sendMessage(messageAcceptor, Configuration.CommandMessagesConfiguration::getIndexFailed, placeholders);
+            }
+        });
+    }
+
+    /**
+     * @return Normalized path, null if it's invalid or points outside the plugin's directory (absolute paths, {@code ..})
+     */
+    private Path resolveInDataDirectory(String path) {
+        var directory = dataDirectory.toAbsolutePath().normalize();
+        try {
+            var resolved = directory.resolve(path).normalize();
+            return resolved.startsWith(directory) && !resolved.equals(directory) ? resolved : null;
+        } catch (InvalidPathException ex) {
+            return null;
+        }
+    }
+
     protected enum DebugCommandCacheType {
         PLAYER_DATA_FETCHER_FETCHED,
         PLAYER_DATA_FETCHER_PRETEND,
         PLAYER_DATA_FETCHER_THROTTLED,
-        PLAYER_DATA_FETCHER_LAST_SERVICE,
+        PLAYER_DATA_FETCHER_NO_PROFILE,
+        SERVICE_CIRCUIT_BREAKERS,
+        SERVICE_STATISTICS,
+        SERVICE_RATE_LIMITS,
+        ADMISSION_CONTROL,
         DATABASE_FETCHED_PLAYERS,
         DATABASE_RANDOM_PLAYERS,
-        PLAYER_DATA_MEMORY_CACHE
+        PLAYER_DATA_MEMORY_CACHE,
+        EXECUTORS
     }
 
     private String playerDataJson(Jsonable object, int counter, Object key) {
@@ -566,7 +706,9 @@ public abstract class MultiPlatform<P, L, S, M> implements SimplifiedLogger {
             }
             case PLAYER_DATA_FETCHER_THROTTLED -> {
                 var str = "[PlayerDataFetcher.class] UUID -> time in milliseconds (long)";
-                var it = PlayerDataFetcher.getThrottledConnections().entrySet().iterator();
+                var throttledConnections = PlayerDataFetcher.getThrottledConnections();
+                throttledConnections.expire(configuration.getOnlineAuthentication().getServiceConnectionThrottle());
+                var it = throttledConnections.asMap().entrySet().iterator();
                 if (!it.hasNext())
                     yield str + "\n<no cached data>";
                 for (int i = 1; it.hasNext(); i++) {
@@ -575,13 +717,39 @@ public abstract class MultiPlatform<P, L, S, M> implements SimplifiedLogger {
                 }
                 yield str;
             }
-            case PLAYER_DATA_FETCHER_LAST_SERVICE -> """
-                    [PlayerDataFetcher.class]
-                    Last used service -> &e%s&r
-                    Last used at -> %s""".formatted(
-                            PlayerDataFetcher.getLastUsedService(),
-                            PlayerDataFetcher.getLastUsedServiceAt()
-                    );
+            case PLAYER_DATA_FETCHER_NO_PROFILE -> {
+                var str = "[PlayerDataFetcher.class] Username -> NoProfileData.class";
+                var it = PlayerDataFetcher.getNoProfileCache().entrySet().iterator();
+                if (!it.hasNext())
+                    yield str + "\n<no cached data>";
+                for (int i = 1; it.hasNext(); i++) {
+                    var entry = it.next();
+                    str += "\n%s# %s: &e%s&r".formatted(i, entry.getKey(), entry.getValue());
+                }
+                yield str;
+            }
+            case SERVICE_CIRCUIT_BREAKERS -> {
+                var str = "[CircuitBreaker.class] Service -> state";
+                var services = configuration.getOnlineAuthentication().getServices();
+                for (int i = 0; i < services.size(); i++)
+                    str += "\n%s# %s: &e%s&r".formatted(i + 1, services.get(i).getName(), services.get(i).getCircuitBreaker());
+                yield str;
+            }
+            case SERVICE_STATISTICS -> {
+                var str = "[ServiceStatistics.class] Service -> average response time, success rate";
+                var services = configuration.getOnlineAuthentication().getServices();
+                for (int i = 0; i < services.size(); i++)
+                    str += "\n%s# %s: &e%s&r".formatted(i + 1, services.get(i).getName(), services.get(i).getStatistics());
+                yield str;
+            }
+            case SERVICE_RATE_LIMITS -> {
+                var str = "[RateLimitQueue.class] Service -> waiting logins, requests left";
+                var services = configuration.getOnlineAuthentication().getServices();
+                for (int i = 0; i < services.size(); i++)
+                    str += "\n%s# %s: &e%s&r".formatted(i + 1, services.get(i).getName(), services.get(i).getRateLimitQueue());
+                yield str;
+            }
+            case ADMISSION_CONTROL -> "[AdmissionController.class]\n" + admissionController;
             case DATABASE_FETCHED_PLAYERS -> {
                 if (driver == null)
                     yield "Database (driver) is not running!";
@@ -614,6 +782,12 @@ public abstract class MultiPlatform<P, L, S, M> implements SimplifiedLogger {
                 }
                 yield str;
             }
+            case EXECUTORS -> """
+                    [MultiPlatform.class]
+                    %s
+                    %s
+                    %s
+                    %s""".formatted(networkExecutor, httpClientExecutor, databaseExecutor, generalExecutor);
             case PLAYER_DATA_MEMORY_CACHE -> {
                 var str = "[PlayerDataFetcher.class] UUID -> OnlinePlayerData.class\n";
                 var it = PlayerDataFetcher.getCachedPlayerDataMap().entrySet().iterator();
@@ -629,17 +803,15 @@ public abstract class MultiPlatform<P, L, S, M> implements SimplifiedLogger {
     }
 
     public void onPretendCommand(M messageAcceptor, UUID originalUniqueId, UUID uniqueId, String username, boolean tryFetchProperties) {
-        scheduleTaskAsync(() -> {
-            PlayerData data;
-            boolean fetch = tryFetchProperties;
-            if (fetch && MultiPlatform.get()
-                    .getConfiguration()
-                    .getOnlineAuthentication()
-                    .getServices()
-                    .stream()
-                    .noneMatch(x -> x.getJsonPathToProperties() != null))
-                fetch = false;
-            data = PlayerDataFetcher.pretend(originalUniqueId, username, uniqueId, fetch, createLogger(messageAcceptor));
+        boolean fetch = tryFetchProperties;
+        if (fetch && MultiPlatform.get()
+                .getConfiguration()
+                .getOnlineAuthentication()
+                .getServices()
+                .stream()
+                .noneMatch(x -> x.getJsonPathToProperties() != null))
+            fetch = false;
+        PlayerDataFetcher.pretend(originalUniqueId, username, uniqueId, fetch, createLogger(messageAcceptor)).thenAccept(data -> {
             var placeholders = getCommandBasePlaceholders();
             if (data != null) {
                 placeholders.put("new_username", data.getUsername());
@@ -0,0 +1,212 @@
+package me.itstautvydas.uuidswapper.multiplatform;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import me.itstautvydas.BuildConstants;
+import me.itstautvydas.uuidswapper.config.Configuration;
+import me.itstautvydas.uuidswapper.enums.ExecutorRejectionPolicy;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Named executor with a limit of queued tasks, runs tasks on virtual threads (Java 21+) or on a fixed platform
+ * thread pool.
+ */
+@Getter
+public class PluginExecutor implements Executor {
+    private final String name;
+    private final boolean virtual;
+    private final int threads;
+    private final int queueLimit;
+    private final ExecutorRejectionPolicy rejectionPolicy;
+    @Getter(AccessLevel.NONE)
+    private final ExecutorService delegate;
+    @Getter(AccessLevel.NONE)
+    private final Semaphore permits;
+    // Plugin's own timer, JDK's shared delayed executor thread must not run (or wait for) plugin's tasks
+    @Getter(AccessLevel.NONE)
+    private final ScheduledThreadPoolExecutor timer;
+
+    @Getter(AccessLevel.NONE)
+    private final AtomicInteger active = new AtomicInteger();
+    @Getter(AccessLevel.NONE)
+    private final AtomicInteger queued = new AtomicInteger();
+    @Getter(AccessLevel.NONE)
+    private final LongAdder completed = new LongAdder();
+    @Getter(AccessLevel.NONE)
+    private final LongAdder failed = new LongAdder();
+    @Getter(AccessLevel.NONE)
+    private final LongAdder rejected = new LongAdder();
+
+    public PluginExecutor(String name, Configuration.ExecutorsConfiguration.ExecutorConfiguration configuration) {
+        this.name = name;
+        this.queueLimit = configuration.getQueueLimit();
+        this.rejectionPolicy = configuration.getRejectionPolicy();
+        this.permits = queueLimit == -1 ? null : new Semaphore(queueLimit);
+
+        var threadName = BuildConstants.NAME + "-" + name + "-";
+        this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            var thread = new Thread(runnable, threadName + "Timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        var virtualExecutor = configuration.isVirtualThreads() ? createVirtualThreadExecutor(threadName) : null;
+        this.virtual = virtualExecutor != null;
+        if (virtual) {
+            this.threads = -1;
+            this.delegate = virtualExecutor;
+        } else {
+            this.threads = configuration.getThreads();
+            var threadCount = new AtomicInteger();
+            var pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                var thread = new Thread(runnable, threadName + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            pool.allowCoreThreadTimeOut(true);
+            this.delegate = pool;
+        }
+    }
+
+    /**
+     * Virtual threads API is only available on Java 21+, while the plugin is compiled for Java 17.
+     * @return Executor which starts a new virtual thread for each task, null if virtual threads are not supported
+     */
+    private static ExecutorService createVirtualThreadExecutor(String threadName) {
+        try {
+            var builderClass = Class.forName("java.lang.Thread$Builder");
+            var builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, threadName, 1L);
+            var factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class
+                    .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            return null;
+        }
+    }
+
+    @Override
+    public void execute(@NotNull Runnable command) {
+        if (tryExecute(command))
+            return;
+        if (rejectionPolicy == ExecutorRejectionPolicy.CALLER_RUNS) {
+            run(command);
+            return;
+        }
+        throw new RejectedExecutionException("Executor '%s' reached its queue limit (%s)".formatted(name, queueLimit));
+    }
+
+    /**
+     * Execute the task unless queue limit is reached, rejection policy is not applied
+     * @return true if task was accepted
+     */
+    public boolean tryExecute(@NotNull Runnable command) {
+        Objects.requireNonNull(command);
+        if (permits != null && !permits.tryAcquire()) {
+            rejected.increment();
+            return false;
+        }
+        queued.incrementAndGet();
+        try {
+            delegate.execute(() -> {
+                queued.decrementAndGet();
+                try {
+                    run(command);
+                } finally {
+                    if (permits != null)
+                        permits.release();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            // Executor is shut down
+            queued.decrementAndGet();
+            if (permits != null)
+                permits.release();
+            rejected.increment();
+            throw ex;
+        }
+        return true;
+    }
+
+    /**
+     * Executor which runs tasks on this executor after the delay. Scheduled tasks are never dropped: if queue limit
+     * is reached, task runs on this executor's own timer thread instead.
+     */
+    public Executor delayed(long delay, TimeUnit unit) {
+        return command -> {
+            Objects.requireNonNull(command);
+            timer.schedule(() -> {
+                if (!tryExecute(command))
+                    run(command);
+            }, delay, unit);
+        };
+    }
+
+    private void run(Runnable command) {
+        active.incrementAndGet();
+        try {
+            command.run();
+            completed.increment();
+        } catch (Throwable ex) {
+            failed.increment();
+            throw ex;
+        } finally {
+            active.decrementAndGet();
+        }
+    }
+
+    public int getActive() {
+        return active.get();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Stop accepting new tasks and wait for the running ones to finish
+     * @param timeout Time in milliseconds to wait before interrupting running tasks
+     */
+    public void shutdown(long timeout) {
+        timer.shutdownNow();
+        delegate.shutdown();
+        try {
+            if (!delegate.awaitTermination(timeout, TimeUnit.MILLISECONDS))
+                delegate.shutdownNow();
+        } catch (InterruptedException ex) {
+            delegate.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "%s (%s) -> active: %s, queued: %s, completed: %s, failed: %s, rejected: %s".formatted(
+                name,
+                virtual ? "virtual threads" : threads + " threads",
+                getActive(),
+                getQueued(),
+                getCompleted(),
+                getFailed(),
+                getRejected()
+        );
+    }
+}
@@ -20,10 +20,12 @@ import net.md_5.bungee.api.plugin.Command;
 import net.md_5.bungee.api.plugin.Listener;
 import net.md_5.bungee.api.scheduler.ScheduledTask;
 import net.md_5.bungee.event.EventHandler;
+import net.md_5.bungee.event.EventPriority;
 import net.md_5.bungee.protocol.data.Property;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -41,7 +43,8 @@ public class BungeeCordPluginWrapper extends JavaLoggerWrapper<UUIDSwapperBungee
         ProxyServer.getInstance().getPluginManager().registerCommand(handle, new Command(commandName) {
             @Override
             public void execute(CommandSender sender, String[] args) {
-
+                if (args.length >= 3 && args[0].equalsIgnoreCase("index") && sender.hasPermission(Utils.INDEX_COMMAND_PERMISSION))
+                    onIndexCommand(sender, args[1], String.join(" ", Arrays.copyOfRange(args, 2, args.length)));
             }
         });
     }
@@ -86,6 +89,14 @@ public class BungeeCordPluginWrapper extends JavaLoggerWrapper<UUIDSwapperBungee
         forceOfflineModeIfNeeded(() -> event.getConnection().setOnlineMode(false));
     }
 
+    // Last, so connections other plugins deny or switch to online mode are not prefetched
+    @EventHandler(priority = EventPriority.HIGHEST)
+    public void handlePlayerPrefetchHandshake(PreLoginEvent event) {
+        // Username is already known here, login event will take the result
+        if (!event.isCancelled() && !event.getConnection().isOnlineMode())
+            handlePlayerPrefetch(event.getConnection().getName(), true);
+    }
+
     @EventHandler
     public void handlePlayerPreLogin(LoginEvent event) {
         var completableFuture = handlePlayerLogin(
@@ -106,8 +117,7 @@ public class BungeeCordPluginWrapper extends JavaLoggerWrapper<UUIDSwapperBungee
         );
 
         event.registerIntent(handle);
-        ProxyServer.getInstance().getScheduler().runAsync(handle, () -> {
-            completableFuture.join();
+        completableFuture.whenComplete((data, throwable) -> {
             var holder = new BiObjectHolder<>(event.getConnection().getName(), event.getConnection().getUniqueId());
             var properties = new ArrayList<ProfilePropertyWrapper>();
             if (handleGameProfileRequest(holder, properties)) {
@@ -44,11 +44,12 @@ public class PaperPluginWrapper extends JavaLoggerWrapper<UUIDSwapperPaper, Serv
 
     private LiteralArgumentBuilder<CommandSourceStack> debug(DebugCommandCacheType type) {
         return Commands.literal(type.toString()).executes(ctx -> {
-            ctx.getSource().getSender().sendMessage(
+            // Some of the debug messages are read from the database
+            getGeneralExecutor().execute(() -> ctx.getSource().getSender().sendMessage(
                     LegacyComponentSerializer
                             .legacyAmpersand()
                             .deserialize(getDebugMessage(type))
-            );
+            ));
             return Command.SINGLE_SUCCESS;
         });
     }
@@ -72,9 +73,14 @@ public class PaperPluginWrapper extends JavaLoggerWrapper<UUIDSwapperPaper, Serv
                                 .then(debug(DebugCommandCacheType.PLAYER_DATA_FETCHER_FETCHED))
                                 .then(debug(DebugCommandCacheType.PLAYER_DATA_FETCHER_PRETEND))
                                 .then(debug(DebugCommandCacheType.PLAYER_DATA_FETCHER_THROTTLED))
-                                .then(debug(DebugCommandCacheType.PLAYER_DATA_FETCHER_LAST_SERVICE))
+                                .then(debug(DebugCommandCacheType.PLAYER_DATA_FETCHER_NO_PROFILE))
+                                .then(debug(DebugCommandCacheType.SERVICE_CIRCUIT_BREAKERS))
+                                .then(debug(DebugCommandCacheType.SERVICE_STATISTICS))
+                                .then(debug(DebugCommandCacheType.SERVICE_RATE_LIMITS))
+                                .then(debug(DebugCommandCacheType.ADMISSION_CONTROL))
                                 .then(debug(DebugCommandCacheType.DATABASE_FETCHED_PLAYERS))
                                 .then(debug(DebugCommandCacheType.DATABASE_RANDOM_PLAYERS))
+                                .then(debug(DebugCommandCacheType.EXECUTORS))
                         ).then(Commands.literal("pretend")
                                 .requires(source -> source.getSender().hasPermission(Utils.PRETEND_COMMAND_PERMISSION))
                                 .then(Commands.argument("username", StringArgumentType.word())
@@ -90,6 +96,14 @@ public class PaperPluginWrapper extends JavaLoggerWrapper<UUIDSwapperPaper, Serv
                                                             Utils.pretend(ctx);
                                                             return Command.SINGLE_SUCCESS;
                                                         }))))
+                        ).then(Commands.literal("index")
+                                .requires(source -> source.getSender().hasPermission(Utils.INDEX_COMMAND_PERMISSION))
+                                .then(Commands.argument("service", StringArgumentType.word())
+                                        .then(Commands.argument("dump", StringArgumentType.greedyString())
+                                                .executes(ctx -> {
+                                                    onIndexCommand(ctx, ctx.getArgument("service", String.class), ctx.getArgument("dump", String.class));
+                                                    return Command.SINGLE_SUCCESS;
+                                                })))
                         ).build()));
     }
 
@@ -44,11 +44,12 @@ public class VelocityPluginWrapper extends MultiPlatform<UUIDSwapperVelocity, Lo
 
     private LiteralArgumentBuilder<CommandSource> debug(DebugCommandCacheType type) {
         return BrigadierCommand.literalArgumentBuilder(type.toString()).executes(ctx -> {
-            ctx.getSource().sendMessage(
+            // Some of the debug messages are read from the database
+            getGeneralExecutor().execute(() -> ctx.getSource().sendMessage(
                     LegacyComponentSerializer
                             .legacyAmpersand()
                             .deserialize(getDebugMessage(type))
-            );
+            ));
             return Command.SINGLE_SUCCESS;
         });
     }
@@ -73,9 +74,14 @@ public class VelocityPluginWrapper extends MultiPlatform<UUIDSwapperVelocity, Lo
                         .then(debug(DebugCommandCacheType.PLAYER_DATA_FETCHER_FETCHED))
                         .then(debug(DebugCommandCacheType.PLAYER_DATA_FETCHER_PRETEND))
                         .then(debug(DebugCommandCacheType.PLAYER_DATA_FETCHER_THROTTLED))
-                        .then(debug(DebugCommandCacheType.PLAYER_DATA_FETCHER_LAST_SERVICE))
+                        .then(debug(DebugCommandCacheType.PLAYER_DATA_FETCHER_NO_PROFILE))
+                        .then(debug(DebugCommandCacheType.SERVICE_CIRCUIT_BREAKERS))
+                        .then(debug(DebugCommandCacheType.SERVICE_STATISTICS))
+                        .then(debug(DebugCommandCacheType.SERVICE_RATE_LIMITS))
+                        .then(debug(DebugCommandCacheType.ADMISSION_CONTROL))
                         .then(debug(DebugCommandCacheType.DATABASE_FETCHED_PLAYERS))
                         .then(debug(DebugCommandCacheType.DATABASE_RANDOM_PLAYERS))
+                        .then(debug(DebugCommandCacheType.EXECUTORS))
                 ).then(BrigadierCommand.literalArgumentBuilder("pretend")
                         .requires(source -> source.hasPermission(Utils.PRETEND_COMMAND_PERMISSION))
                         .then(BrigadierCommand.requiredArgumentBuilder("username", StringArgumentType.word())
@@ -91,6 +97,14 @@ public class VelocityPluginWrapper extends MultiPlatform<UUIDSwapperVelocity, Lo
                                                     Utils.pretend(ctx);
                                                     return Command.SINGLE_SUCCESS;
                                                 }))))
+                ).then(BrigadierCommand.literalArgumentBuilder("index")
+                        .requires(source -> source.hasPermission(Utils.INDEX_COMMAND_PERMISSION))
+                        .then(BrigadierCommand.requiredArgumentBuilder("service", StringArgumentType.word())
+                                .then(BrigadierCommand.requiredArgumentBuilder("dump", StringArgumentType.greedyString())
+                                        .executes(ctx -> {
+                                            onIndexCommand(ctx, ctx.getArgument("service", String.class), ctx.getArgument("dump", String.class));
+                                            return Command.SINGLE_SUCCESS;
+                                        })))
                 ).build();
 
         commandManager.register(commandManager.metaBuilder(commandName)
@@ -156,7 +170,7 @@ public class VelocityPluginWrapper extends MultiPlatform<UUIDSwapperVelocity, Lo
     @Subscribe
     public EventTask handlePlayerPreLogin(PreLoginEvent event) {
         forceOfflineModeIfNeeded(() -> event.setResult(PreLoginEvent.PreLoginComponentResult.forceOfflineMode()));
-        return EventTask.async(() -> handlePlayerLogin(
+        return EventTask.resumeWhenComplete(handlePlayerLogin(
                 event.getUsername(),
                 event.getUniqueId(),
                 null,
@@ -176,7 +190,7 @@ public class VelocityPluginWrapper extends MultiPlatform<UUIDSwapperVelocity, Lo
                         }
                     }
                 }
-        ).join());
+        ));
     }
 
     @Subscribe
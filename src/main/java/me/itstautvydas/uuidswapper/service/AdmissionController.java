@@ -0,0 +1,170 @@
+package me.itstautvydas.uuidswapper.service;
+
+import me.itstautvydas.uuidswapper.config.Configuration;
+import me.itstautvydas.uuidswapper.enums.AdmissionLane;
+import me.itstautvydas.uuidswapper.multiplatform.MultiPlatform;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits how many players are fetched from services at once. Players over the limit wait in a queue of their lane,
+ * {@link AdmissionLane#KNOWN} players go first and {@link AdmissionLane#UNKNOWN} ones are let through at a limited rate.
+ * Running fetches are counted even if admission control is disabled, so it can be enabled by reloading.
+ */
+public class AdmissionController {
+    private final Map<AdmissionLane, Deque<Waiter>> lanes = new EnumMap<>(AdmissionLane.class);
+    private final SlidingWindowCounter unknownPlayers = new SlidingWindowCounter(1, TimeUnit.SECONDS);
+    private int running;
+    private boolean drainScheduled;
+
+    private long admitted;
+    private long queued;
+    private long timedOut;
+    private long rejected;
+
+    public AdmissionController() {
+        for (var lane : AdmissionLane.values())
+            lanes.put(lane, new ArrayDeque<>());
+    }
+
+    /**
+     * @return true once player can be fetched, {@link #release()} must be called after fetching. false if queue is full
+     * or player waited for too long.
+     */
+    public CompletableFuture<Boolean> acquire(AdmissionLane lane) {
+        var config = getConfiguration();
+        Waiter waiter;
+        synchronized (this) {
+            if (!config.isEnabled() || (!hasWaitingAhead(lane) && canStart(lane, config))) {
+                start();
+                return CompletableFuture.completedFuture(true);
+            }
+            if (getWaiting() >= config.getQueueSize() || config.getMaxQueueTime() == 0) {
+                rejected++;
+                return CompletableFuture.completedFuture(false);
+            }
+            waiter = new Waiter(new CompletableFuture<>());
+            lanes.get(lane).addLast(waiter);
+            queued++;
+            // Queue might be waiting only for the rate of unknown players
+            scheduleDrain(config);
+        }
+        MultiPlatform.get().getGeneralExecutor().delayed(config.getMaxQueueTime(), TimeUnit.MILLISECONDS).execute(() -> expire(waiter));
+        return waiter.future;
+    }
+
+    public void release() {
+        synchronized (this) {
+            running = Math.max(running - 1, 0);
+        }
+        drain();
+    }
+
+    private void drain() {
+        var config = getConfiguration();
+        var ready = new ArrayList<Waiter>();
+        synchronized (this) {
+            drainScheduled = false;
+            for (var lane : AdmissionLane.values()) {
+                var waiters = lanes.get(lane);
+                while (!waiters.isEmpty()) {
+                    if (waiters.peekFirst().future.isDone()) {
+                        waiters.removeFirst();
+                        continue;
+                    }
+                    if (config.isEnabled() && !canStart(lane, config))
+                        break;
+                    start();
+                    ready.add(waiters.removeFirst());
+                }
+                // Unknown players can't overtake known ones
+                if (!waiters.isEmpty())
+                    break;
+            }
+            if (getWaiting() != 0)
+                scheduleDrain(config);
+        }
+        for (var waiter : ready) {
+            if (!waiter.future.complete(true))
+                release(); // Cancelled while waiting
+        }
+    }
+
+    private boolean canStart(AdmissionLane lane, Configuration.AdmissionControlConfiguration config) {
+        if (running >= config.getMaxConcurrentFetches())
+            return false;
+        return lane != AdmissionLane.UNKNOWN || config.getUnknownPlayersPerSecond() == 0
+                || unknownPlayers.tryAcquire(config.getUnknownPlayersPerSecond());
+    }
+
+    private void start() {
+        running++;
+        admitted++;
+    }
+
+    private void expire(Waiter waiter) {
+        synchronized (this) {
+            var removed = false;
+            for (var waiters : lanes.values())
+                removed |= waiters.remove(waiter);
+            if (!removed)
+                return;
+            timedOut++;
+        }
+        waiter.future.complete(false);
+    }
+
+    /**
+     * Only needed when unknown players wait for their rate, otherwise {@link #release()} drains the queue
+     */
+    private void scheduleDrain(Configuration.AdmissionControlConfiguration config) {
+        if (drainScheduled || config.getUnknownPlayersPerSecond() == 0 || lanes.get(AdmissionLane.UNKNOWN).isEmpty())
+            return;
+        drainScheduled = true;
+        var delay = Math.max(1, unknownPlayers.getTimeToWait(config.getUnknownPlayersPerSecond()));
+        MultiPlatform.get().getGeneralExecutor().delayed(delay, TimeUnit.MILLISECONDS).execute(this::drain);
+    }
+
+    private boolean hasWaitingAhead(AdmissionLane lane) {
+        for (var other : AdmissionLane.values()) {
+            if (!lanes.get(other).isEmpty())
+                return true;
+            if (other == lane)
+                break;
+        }
+        return false;
+    }
+
+    private int getWaiting() {
+        var waiting = 0;
+        for (var waiters : lanes.values())
+            waiting += waiters.size();
+        return waiting;
+    }
+
+    private static Configuration.AdmissionControlConfiguration getConfiguration() {
+        return MultiPlatform.get().getConfiguration().getOnlineAuthentication().getAdmissionControl();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "running: %s, waiting: %s (known: %s, unknown: %s), admitted: %s, queued: %s, timed out: %s, rejected: %s".formatted(
+                running,
+                getWaiting(),
+                lanes.get(AdmissionLane.KNOWN).size(),
+                lanes.get(AdmissionLane.UNKNOWN).size(),
+                admitted,
+                queued,
+                timedOut,
+                rejected
+        );
+    }
+
+    private record Waiter(CompletableFuture<Boolean> future) {}
+}
@@ -0,0 +1,178 @@
+package me.itstautvydas.uuidswapper.service;
+
+import me.itstautvydas.uuidswapper.exception.ResponseTooLargeException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Response's whole body, decompressed (gzip or deflate) once it's received. Body is collected without blocking any
+ * thread, the response fails with {@link ResponseTooLargeException} and the rest of it is aborted as soon as the body
+ * (received or decompressed) is larger than allowed.
+ */
+public class BoundedBodyHandler implements HttpResponse.BodyHandler<byte[]> {
+    public static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    // 0 - unlimited
+    private final long maxBytes;
+
+    public BoundedBodyHandler(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public HttpResponse.BodySubscriber<byte[]> apply(HttpResponse.ResponseInfo info) {
+        var encoding = info.headers().firstValue("Content-Encoding").orElse("").trim().toLowerCase(Locale.ROOT);
+        // Declared length of a compressed body says nothing about its decompressed size
+        var declaredLength = encoding.isEmpty() || encoding.equals("identity")
+                ? info.headers().firstValueAsLong("Content-Length").orElse(-1)
+                : -1;
+        return new BoundedBodySubscriber(encoding, declaredLength, maxBytes);
+    }
+
+    public static String readString(HttpResponse<byte[]> response) {
+        return new String(response.body(), getCharset(response.headers()));
+    }
+
+    public static Reader reader(HttpResponse<byte[]> response) {
+        return new InputStreamReader(new ByteArrayInputStream(response.body()), getCharset(response.headers()));
+    }
+
+    public static boolean isJson(HttpResponse<?> response) {
+        return response.headers()
+                .firstValue("Content-Type")
+                .orElse("")
+                .toLowerCase(Locale.ROOT)
+                .contains("json");
+    }
+
+    private static Charset getCharset(HttpHeaders headers) {
+        var contentType = headers.firstValue("Content-Type").orElse("");
+        for (var parameter : contentType.split(";")) {
+            var pair = parameter.trim().split("=", 2);
+            if (pair.length == 2 && pair[0].trim().equalsIgnoreCase("charset")) {
+                try {
+                    return Charset.forName(pair[1].trim().replace("\"", ""));
+                } catch (IllegalArgumentException ignored) {
+                    break;
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private static class BoundedBodySubscriber implements HttpResponse.BodySubscriber<byte[]> {
+        private final CompletableFuture<byte[]> body = new CompletableFuture<>();
+        private final ByteArrayOutputStream received = new ByteArrayOutputStream();
+        private final String encoding;
+        private final long declaredLength;
+        private final long maxBytes;
+        private Flow.Subscription subscription;
+
+        private BoundedBodySubscriber(String encoding, long declaredLength, long maxBytes) {
+            this.encoding = encoding;
+            this.declaredLength = declaredLength;
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public CompletionStage<byte[]> getBody() {
+            return body;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (maxBytes > 0 && declaredLength > maxBytes) {
+                abort(new ResponseTooLargeException(maxBytes));
+                return;
+            }
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            if (body.isDone())
+                return;
+            for (var buffer : buffers) {
+                // Compressed body is limited too, it's not smaller than the decompressed one in practice
+                if (maxBytes > 0 && received.size() + (long) buffer.remaining() > maxBytes) {
+                    abort(new ResponseTooLargeException(maxBytes));
+                    return;
+                }
+                var bytes = new byte[buffer.remaining()];
+                buffer.get(bytes);
+                received.writeBytes(bytes);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            body.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            if (body.isDone())
+                return;
+            try {
+                body.complete(decode(received.toByteArray()));
+            } catch (IOException ex) {
+                body.completeExceptionally(ex);
+            }
+        }
+
+        private void abort(IOException ex) {
+            subscription.cancel();
+            body.completeExceptionally(ex);
+        }
+
+        private byte[] decode(byte[] raw) throws IOException {
+            var inflater = encoding.equals("deflate") ? new Inflater(!isZlib(raw)) : null;
+            try (var stream = switch (encoding) {
+                case "", "identity" -> null;
+                case "gzip", "x-gzip" -> new GZIPInputStream(new ByteArrayInputStream(raw));
+                case "deflate" -> new InflaterInputStream(new ByteArrayInputStream(raw), inflater);
+                default -> throw new IOException("Unsupported content encoding: " + encoding);
+            }) {
+                if (stream == null)
+                    return raw;
+                return maxBytes > 0 ? readBounded(stream) : stream.readAllBytes();
+            } finally {
+                if (inflater != null)
+                    inflater.end();
+            }
+        }
+
+        private byte[] readBounded(InputStream stream) throws IOException {
+            var decoded = stream.readNBytes((int) Math.min(maxBytes + 1, Integer.MAX_VALUE - 8));
+            if (decoded.length > maxBytes)
+                throw new ResponseTooLargeException(maxBytes);
+            return decoded;
+        }
+
+        /**
+         * Deflate should be zlib wrapped, but some servers send raw deflate data
+         */
+        private static boolean isZlib(byte[] raw) {
+            return raw.length >= 2 && (raw[0] & 0x0F) == 8 && ((raw[0] & 0xFF) << 8 | (raw[1] & 0xFF)) % 31 == 0;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package me.itstautvydas.uuidswapper.service;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParser;
+import me.itstautvydas.uuidswapper.config.Configuration;
+import me.itstautvydas.uuidswapper.data.ResponseData;
+import me.itstautvydas.uuidswapper.multiplatform.MultiPlatform;
+
+import javax.net.ssl.SSLSession;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects username lookups of a service for a short window (or until the batch is full) and sends them to the
+ * service's bulk endpoint in one request, which only counts as a single request towards the rate limit.
+ */
+public class BulkLookupBatcher {
+    private final Configuration.ServiceConfiguration service;
+    // Lowercase username -> logins waiting for it, usernames are case-insensitive
+    private Map<String, List<CompletableFuture<ResponseData>>> pending = new LinkedHashMap<>();
+    private boolean flushScheduled;
+
+    public BulkLookupBatcher(Configuration.ServiceConfiguration service) {
+        this.service = service;
+    }
+
+    /**
+     * @return Player's profile from the bulk response (as if it was service's response), response with status 404 if
+     * bulk response doesn't contain the player, null if bulk request failed or service is rate-limited
+     */
+    public CompletableFuture<ResponseData> lookup(String username) {
+        var future = new CompletableFuture<ResponseData>();
+        var key = username.toLowerCase(Locale.ROOT);
+        Map<String, List<CompletableFuture<ResponseData>>> batch = null;
+        synchronized (this) {
+            pending.computeIfAbsent(key, k -> new ArrayList<>()).add(future);
+            if (pending.size() >= service.getBulkMaxSize()) {
+                batch = takeBatch();
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                MultiPlatform.get().getNetworkExecutor()
+                        .delayed(service.getBulkWindow(), TimeUnit.MILLISECONDS)
+                        .execute(this::flush);
+            }
+        }
+        if (batch != null)
+            send(batch);
+        return future;
+    }
+
+    private void flush() {
+        Map<String, List<CompletableFuture<ResponseData>>> batch;
+        synchronized (this) {
+            flushScheduled = false;
+            if (pending.isEmpty())
+                return;
+            batch = takeBatch();
+        }
+        send(batch);
+    }
+
+    private Map<String, List<CompletableFuture<ResponseData>>> takeBatch() {
+        var batch = pending;
+        pending = new LinkedHashMap<>();
+        return batch;
+    }
+
+    private void send(Map<String, List<CompletableFuture<ResponseData>>> batch) {
+        if (!service.canSendRequest()) {
+            completeMissing(batch);
+            return;
+        }
+        var body = new JsonArray();
+        for (var username : batch.keySet())
+            body.add(username);
+
+        var placeholders = getPlaceholders(batch.keySet());
+        var timeout = service.getTimeout() > 0 ? service.getTimeout() : 5000;
+        HttpRequest.Builder builder;
+        try {
+            builder = HttpRequest.newBuilder()
+                    .uri(URI.create(service.getBulkEndpointTemplate().render(placeholders)))
+                    .timeout(Duration.ofMillis(timeout))
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()));
+        } catch (RuntimeException ex) {
+            service.releaseRequest();
+            completeMissing(batch);
+            return;
+        }
+        if (service.isCompressResponses())
+            builder.setHeader("Accept-Encoding", BoundedBodyHandler.ACCEPT_ENCODING);
+
+        HttpRequest request;
+        try {
+            for (var header : service.getHeaderTemplates())
+                builder.setHeader(header.getFirst().render(placeholders), header.getSecond().render(placeholders));
+            builder.setHeader("Content-Type", "application/json");
+            request = builder.build();
+        } catch (RuntimeException ex) {
+            service.releaseRequest();
+            completeMissing(batch);
+            return;
+        }
+        PlayerDataFetcher.getClient(service)
+                .sendAsync(request, new BoundedBodyHandler(service.getMaxResponseBytes()))
+                .whenComplete((response, ex) -> {
+                    try {
+                        if (ex == null && response.statusCode() / 100 == 2) {
+                            completeFound(batch, response, BoundedBodyHandler.readString(response));
+                            // Bulk endpoint only returns profiles which exist
+                            completeNotFound(batch, response);
+                        }
+                    } catch (RuntimeException ignored) {
+                        // Invalid response, everyone will request the service alone
+                    }
+                    completeMissing(batch);
+                });
+    }
+
+    /**
+     * Placeholders of the whole batch, player's own placeholders (e.g. {username}) don't exist in a bulk request
+     */
+    private Map<String, Object> getPlaceholders(Collection<String> usernames) {
+        var placeholders = new HashMap<String, Object>();
+        placeholders.put("service-name", service.getName());
+        placeholders.put("usernames", String.join(",", usernames));
+        placeholders.put("bulk-size", usernames.size());
+        for (var custom : service.getCustomPlaceholders().entrySet())
+            if (custom.getValue() != null)
+                placeholders.put("custom." + custom.getKey(),
+                        service.getMessageTemplate(custom.getValue().toString()).render(placeholders));
+        return placeholders;
+    }
+
+    private void completeFound(Map<String, List<CompletableFuture<ResponseData>>> batch, HttpResponse<?> response, String body) {
+        var usernamePath = service.getBulkUsernameJsonPath();
+        for (var profile : JsonParser.parseString(body).getAsJsonArray()) {
+            var username = usernamePath.get(profile);
+            if (username == null || !username.isJsonPrimitive())
+                continue;
+            var waiting = batch.get(username.getAsString().toLowerCase(Locale.ROOT));
+            if (waiting == null)
+                continue;
+            var data = new ResponseData(response, null, profile.toString(), null);
+            for (var future : waiting)
+                future.complete(data);
+        }
+    }
+
+    private static void completeNotFound(Map<String, List<CompletableFuture<ResponseData>>> batch, HttpResponse<?> response) {
+        var data = new ResponseData(new NotFoundResponse(response), null, "", null);
+        for (var waiting : batch.values())
+            for (var future : waiting)
+                future.complete(data);
+    }
+
+    private static void completeMissing(Map<String, List<CompletableFuture<ResponseData>>> batch) {
+        for (var waiting : batch.values())
+            for (var future : waiting)
+                future.complete(null);
+    }
+
+    /**
+     * Player's response when bulk response doesn't contain the player, like a single request to a service which
+     * responds with 404 for players who don't exist
+     */
+    private record NotFoundResponse(HttpResponse<?> bulkResponse) implements HttpResponse<String> {
+        @Override
+        public int statusCode() {
+            return 404;
+        }
+
+        @Override
+        public HttpRequest request() {
+            return bulkResponse.request();
+        }
+
+        @Override
+        public Optional<HttpResponse<String>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return HttpHeaders.of(Map.of(), (name, value) -> true);
+        }
+
+        @Override
+        public String body() {
+            return "";
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return bulkResponse.sslSession();
+        }
+
+        @Override
+        public URI uri() {
+            return bulkResponse.uri();
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return bulkResponse.version();
+        }
+    }
+}
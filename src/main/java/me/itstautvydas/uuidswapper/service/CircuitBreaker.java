@@ -0,0 +1,107 @@
+package me.itstautvydas.uuidswapper.service;
+
+import me.itstautvydas.uuidswapper.config.Configuration;
+import me.itstautvydas.uuidswapper.enums.CircuitBreakerState;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Tracks service's failure rate over the last requests. Once it's too high, service is skipped (open) for a while,
+ * then a few probe requests are let through (half-open) to check if service has recovered.
+ */
+public class CircuitBreaker {
+    // true - request failed
+    private final Deque<Boolean> outcomes = new ArrayDeque<>();
+    private int failures;
+    private CircuitBreakerState state = CircuitBreakerState.CLOSED;
+    private long openedAt;
+    private int probesInFlight;
+    private int probesSucceeded;
+
+    /**
+     * @return true if request can be sent, its outcome must be reported with
+     * {@link #record(Configuration.CircuitBreakerConfiguration, boolean)} or {@link #release()}
+     */
+    public synchronized boolean tryAcquirePermission(Configuration.CircuitBreakerConfiguration configuration) {
+        if (!configuration.isEnabled())
+            return true;
+        if (state == CircuitBreakerState.OPEN) {
+            if (System.currentTimeMillis() - openedAt < configuration.getOpenDuration())
+                return false;
+            state = CircuitBreakerState.HALF_OPEN;
+            probesInFlight = 0;
+            probesSucceeded = 0;
+        }
+        if (state == CircuitBreakerState.HALF_OPEN) {
+            if (probesInFlight + probesSucceeded >= configuration.getHalfOpenProbes())
+                return false;
+            probesInFlight++;
+        }
+        return true;
+    }
+
+    public synchronized void record(Configuration.CircuitBreakerConfiguration configuration, boolean failed) {
+        if (!configuration.isEnabled())
+            return;
+        switch (state) {
+            case HALF_OPEN -> {
+                probesInFlight = Math.max(probesInFlight - 1, 0);
+                if (failed) {
+                    open();
+                } else if (++probesSucceeded >= configuration.getHalfOpenProbes()) {
+                    state = CircuitBreakerState.CLOSED;
+                    clear();
+                }
+            }
+            case CLOSED -> {
+                outcomes.addLast(failed);
+                if (failed)
+                    failures++;
+                while (outcomes.size() > configuration.getWindowSize()) {
+                    if (outcomes.removeFirst())
+                        failures--;
+                }
+                if (outcomes.size() >= configuration.getMinimumCalls()
+                        && getFailureRate() >= configuration.getFailureRateThreshold())
+                    open();
+            }
+            case OPEN -> {} // Requests which were sent before opening
+        }
+    }
+
+    /**
+     * Request was sent, but its outcome is unknown (e.g. it was cancelled)
+     */
+    public synchronized void release() {
+        if (state == CircuitBreakerState.HALF_OPEN)
+            probesInFlight = Math.max(probesInFlight - 1, 0);
+    }
+
+    private void open() {
+        state = CircuitBreakerState.OPEN;
+        openedAt = System.currentTimeMillis();
+        clear();
+    }
+
+    private void clear() {
+        outcomes.clear();
+        failures = 0;
+    }
+
+    public synchronized CircuitBreakerState getState() {
+        return state;
+    }
+
+    /**
+     * @return Failure rate in percent of the recorded requests
+     */
+    public synchronized double getFailureRate() {
+        return outcomes.isEmpty() ? 0 : failures * 100.0 / outcomes.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "%s (failure rate: %.1f%% of %s requests)".formatted(state, getFailureRate(), outcomes.size());
+    }
+}
@@ -0,0 +1,218 @@
+package me.itstautvydas.uuidswapper.service;
+
+import javax.net.ssl.SSLSession;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service's successful GET responses, reused while they're fresh ({@code Cache-Control: max-age} or {@code Expires})
+ * and revalidated with {@code If-None-Match}/{@code If-Modified-Since} afterwards, so unchanged responses are not
+ * downloaded again.
+ */
+public class HttpResponseCache {
+    // Least recently used first
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * @return Cached response for the request, it might need to be revalidated (see {@link Entry#isFresh()})
+     */
+    public synchronized Entry get(HttpRequest request) {
+        var entry = entries.get(getKey(request));
+        if (entry == null || !entry.vary.equals(getVaryValues(request, entry.vary.keySet())))
+            return null;
+        return entry;
+    }
+
+    /**
+     * Cache response if it's allowed to and can be reused or revalidated later
+     */
+    public void store(HttpRequest request, HttpResponse<?> response, String body, int maxEntries) {
+        if (response.statusCode() != 200)
+            return;
+        var headers = response.headers();
+        var cacheControl = getCacheControl(headers);
+        if (cacheControl.contains("no-store"))
+            return;
+        var varyNames = new HashSet<String>();
+        for (var value : headers.allValues("Vary"))
+            for (var name : value.split(","))
+                if (!name.isBlank())
+                    varyNames.add(name.trim().toLowerCase(Locale.ROOT));
+        if (varyNames.contains("*"))
+            return;
+        var etag = headers.firstValue("ETag").orElse(null);
+        var lastModified = headers.firstValue("Last-Modified").orElse(null);
+        var freshFor = getFreshnessLifetime(headers, cacheControl);
+        if (freshFor <= 0 && etag == null && lastModified == null)
+            return;
+        var entry = new Entry(getVaryValues(request, varyNames), headers, body, etag, lastModified);
+        entry.expiresAt = System.currentTimeMillis() + freshFor;
+        synchronized (this) {
+            entries.put(getKey(request), entry);
+            var it = entries.values().iterator();
+            while (entries.size() > maxEntries && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Service responded with 304 (not modified), cached response is fresh again
+     */
+    public void revalidated(Entry entry, HttpResponse<?> response) {
+        var headers = response.headers();
+        var cacheControl = getCacheControl(headers);
+        // Not modified response doesn't have to repeat caching headers
+        if (cacheControl.isEmpty() && headers.firstValue("Expires").isEmpty()) {
+            headers = entry.headers;
+            cacheControl = getCacheControl(headers);
+        }
+        entry.expiresAt = System.currentTimeMillis() + getFreshnessLifetime(headers, cacheControl);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private static String getKey(HttpRequest request) {
+        return request.method() + " " + request.uri();
+    }
+
+    private static Map<String, List<String>> getVaryValues(HttpRequest request, Set<String> names) {
+        if (names.isEmpty())
+            return Map.of();
+        var values = new HashMap<String, List<String>>();
+        for (var name : names)
+            values.put(name, request.headers().allValues(name));
+        return values;
+    }
+
+    private static Set<String> getCacheControl(HttpHeaders headers) {
+        var directives = new HashSet<String>();
+        for (var value : headers.allValues("Cache-Control"))
+            for (var directive : value.split(","))
+                if (!directive.isBlank())
+                    directives.add(directive.trim().toLowerCase(Locale.ROOT).replace("\"", ""));
+        return directives;
+    }
+
+    /**
+     * @return For how long (milliseconds) response can be used without revalidating it
+     */
+    private static long getFreshnessLifetime(HttpHeaders headers, Set<String> cacheControl) {
+        if (cacheControl.contains("no-cache"))
+            return 0;
+        for (var directive : cacheControl) {
+            if (!directive.startsWith("max-age="))
+                continue;
+            try {
+                var age = headers.firstValueAsLong("Age").orElse(0);
+                return TimeUnit.SECONDS.toMillis(Long.parseLong(directive.substring(8)) - age);
+            } catch (NumberFormatException ex) {
+                return 0;
+            }
+        }
+        var expires = headers.firstValue("Expires").orElse(null);
+        if (expires == null)
+            return 0;
+        try {
+            var date = headers.firstValue("Date")
+                    .map(value -> ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli())
+                    .orElse(System.currentTimeMillis());
+            return ZonedDateTime.parse(expires, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli() - date;
+        } catch (DateTimeParseException ex) {
+            return 0; // Invalid dates (e.g. "0") mean already expired
+        }
+    }
+
+    public static class Entry {
+        private final Map<String, List<String>> vary;
+        private final HttpHeaders headers;
+        private final String body;
+        private final String etag;
+        private final String lastModified;
+        private volatile long expiresAt;
+
+        private Entry(Map<String, List<String>> vary, HttpHeaders headers, String body, String etag, String lastModified) {
+            this.vary = vary;
+            this.headers = headers;
+            this.body = body;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        public boolean isFresh() {
+            return System.currentTimeMillis() < expiresAt;
+        }
+
+        public boolean canRevalidate() {
+            return etag != null || lastModified != null;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        /**
+         * @return Same request, which asks service to only respond with a body if it has changed
+         */
+        public HttpRequest toConditionalRequest(HttpRequest request) {
+            var builder = HttpRequest.newBuilder(request, (name, value) -> true);
+            if (etag != null)
+                builder.setHeader("If-None-Match", etag);
+            if (lastModified != null)
+                builder.setHeader("If-Modified-Since", lastModified);
+            return builder.build();
+        }
+
+        public HttpResponse<String> toResponse(HttpRequest request) {
+            return new CachedResponse(request, this);
+        }
+    }
+
+    private record CachedResponse(HttpRequest request, Entry entry) implements HttpResponse<String> {
+        @Override
+        public int statusCode() {
+            return 200;
+        }
+
+        @Override
+        public Optional<HttpResponse<String>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return entry.headers;
+        }
+
+        @Override
+        public String body() {
+            return entry.body;
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return request.uri();
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return request.version().orElse(HttpClient.Version.HTTP_1_1);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package me.itstautvydas.uuidswapper.service;
+
+import java.util.Arrays;
+
+/**
+ * Response times of service's last successful requests which were sent over the network (cache hits, local index
+ * lookups and failed responses are not recorded), used to decide when to hedge a slow request.
+ */
+public class LatencyTracker {
+    public static final int MIN_SAMPLES = 20;
+
+    private final long[] samples;
+    private int index;
+    private int size;
+
+    public LatencyTracker(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    public synchronized void record(long millis) {
+        samples[index] = millis;
+        index = (index + 1) % samples.length;
+        if (size < samples.length)
+            size++;
+    }
+
+    public synchronized int getSampleCount() {
+        return size;
+    }
+
+    /**
+     * @param percentile Percentile (0-100)
+     * @return Response time in milliseconds, -1 if nothing was recorded
+     */
+    public synchronized long getPercentile(double percentile) {
+        if (size == 0)
+            return -1;
+        var sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        var rank = (int) Math.ceil(percentile / 100 * size) - 1;
+        return sorted[Math.min(Math.max(rank, 0), size - 1)];
+    }
+}
@@ -8,24 +8,32 @@ import me.itstautvydas.uuidswapper.Utils;
 import me.itstautvydas.uuidswapper.config.Configuration;
 import me.itstautvydas.uuidswapper.multiplatform.MultiPlatform;
 import me.itstautvydas.uuidswapper.data.*;
+import me.itstautvydas.uuidswapper.enums.AdmissionLane;
 import me.itstautvydas.uuidswapper.enums.FallbackUsage;
 import me.itstautvydas.uuidswapper.enums.ServiceStateEvent;
+import me.itstautvydas.uuidswapper.enums.StaleCacheMode;
 import me.itstautvydas.uuidswapper.exception.BreakContinuationException;
 import me.itstautvydas.uuidswapper.helper.BiObjectHolder;
+import me.itstautvydas.uuidswapper.helper.ExpiringMap;
 import me.itstautvydas.uuidswapper.helper.ObjectHolder;
+import me.itstautvydas.uuidswapper.helper.PlaceholderMap;
 import me.itstautvydas.uuidswapper.helper.SimplifiedLogger;
+import me.itstautvydas.uuidswapper.json.JsonPath;
+import me.itstautvydas.uuidswapper.json.StreamingJsonExtractor;
 
+import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpConnectTimeoutException;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
 import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionException;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 
 public class PlayerDataFetcher {
     @Getter
@@ -35,18 +43,19 @@ public class PlayerDataFetcher {
     @Getter
     private static final Map<UUID, PlayerData> pretendMap = new ConcurrentHashMap<>();
     @Getter
-    private static final Map<UUID, Long> throttledConnections = new ConcurrentHashMap<>();
-
-    private static final HttpClient client;
-
+    private static final ExpiringMap<UUID> throttledConnections = new ExpiringMap<>();
     @Getter
-    private static volatile String lastUsedService;
+    private static final Map<String, NoProfileData> noProfileCache = new ConcurrentHashMap<>();
+    // Oldest first, a player remembered again is left here too and skipped once it's polled
+    private static final Queue<NoProfileData> noProfileOrder = new ConcurrentLinkedQueue<>();
     @Getter
-    private static volatile long lastUsedServiceAt;
+    private static final Map<InFlightKey, CompletableFuture<BiObjectHolder<OnlinePlayerData, Message>>> inFlightFetches = new ConcurrentHashMap<>();
 
-    static {
-        client = HttpClient.newHttpClient();
-    }
+    // How many logins are going to pull the same fetched data (logins can share a fetch)
+    private static final Map<UUID, Integer> fetchedPlayerDataCopies = new ConcurrentHashMap<>();
+    private static final Set<UUID> revalidatingPlayers = ConcurrentHashMap.newKeySet();
+    private static final Map<String, PrefetchSession> prefetchSessions = new ConcurrentHashMap<>();
+    private static final Map<String, ServiceHttpClient> httpClients = new ConcurrentHashMap<>();
 
     private final String username;
     private final UUID uniqueId;
@@ -60,6 +69,8 @@ public class PlayerDataFetcher {
     private boolean forceErrorMessages;
     @Setter @Accessors(chain = true)
     private boolean checkDatabaseCache;
+    @Setter @Accessors(chain = true)
+    private boolean shareInFlightRequests;
 
     private String disconnectMessage;
     private boolean disconnect = true;
@@ -68,12 +79,32 @@ public class PlayerDataFetcher {
     private boolean sendDebugMessages;
     private OnlinePlayerData fetchedPlayerData;
     private long totalExecutionTime;
-    private final Map<String, Object> placeholders = new HashMap<>();
+    private final PlaceholderMap placeholders = new PlaceholderMap();
     private final Configuration.OnlineAuthenticationConfiguration config;
     private Configuration.ServiceConfiguration service;
     private String servicePrefix;
     private boolean applyProperties = true;
     private boolean requireProperties;
+    private OnlinePlayerData staleCachedData;
+    private boolean disconnectedByHandler;
+    // Player has cached data, even if it can't be used anymore
+    private boolean knownPlayer;
+
+    private volatile boolean cancelled;
+    // System.nanoTime() by which the whole fetch has to finish, 0 if there's no limit
+    private long deadline;
+    private volatile boolean deadlineExceeded;
+    // Should current service's outcome be reported to its circuit breaker
+    private boolean circuitBreakerPermitted;
+    private boolean serviceFailed;
+    // Response time of current service's request, -1 if there was no response
+    private long serviceTook = -1;
+    private final Set<CompletableFuture<?>> pendingRequests = ConcurrentHashMap.newKeySet();
+    private final Map<String, CompletableFuture<ResponseData>> earlyPropertiesRequests = new HashMap<>();
+    private boolean firstServiceInProgress;
+    private boolean handedOverToHedge;
+    private PlayerDataFetcher hedgeFetcher;
+    private CompletableFuture<BiObjectHolder<OnlinePlayerData, Message>> hedgeFuture;
 
     public PlayerDataFetcher(String username, UUID uniqueId, SimplifiedLogger logger) {
         this.config = MultiPlatform.get().getConfiguration().getOnlineAuthentication();
@@ -94,7 +125,7 @@ public class PlayerDataFetcher {
 
     public static void clearPlayerDataCache() {
         if (cachedPlayerDataMap.isEmpty()) return;
-        cachedPlayerDataMap.entrySet().removeIf(e -> e.getValue().isExpired());
+        cachedPlayerDataMap.entrySet().removeIf(e -> !isCacheUsable(e.getValue()));
     }
 
     public static OnlinePlayerData getCachedPlayerData(UUID originalUniqueId) {
@@ -102,14 +133,33 @@ public class PlayerDataFetcher {
     }
 
     public static OnlinePlayerData pullPlayerData(UUID originalUniqueId) {
-        return fetchedPlayerDataMap.remove(originalUniqueId);
+        var pulled = new ObjectHolder<OnlinePlayerData>(null);
+        fetchedPlayerDataCopies.compute(originalUniqueId, (key, copies) -> {
+            if (copies != null && copies > 1) {
+                pulled.set(fetchedPlayerDataMap.get(key));
+                return copies - 1;
+            }
+            pulled.set(fetchedPlayerDataMap.remove(key));
+            return null;
+        });
+        return pulled.get();
+    }
+
+    /**
+     * Keep fetched data until login pulls it with {@link #pullPlayerData(UUID)}, each login stores its own copy
+     */
+    private static void storeFetchedPlayerData(UUID originalUniqueId, OnlinePlayerData data) {
+        fetchedPlayerDataCopies.compute(originalUniqueId, (key, copies) -> {
+            fetchedPlayerDataMap.put(key, data);
+            return copies == null ? 1 : copies + 1;
+        });
     }
 
     public static PlayerData pullPretender(UUID originalUniqueId) {
         return pretendMap.remove(originalUniqueId);
     }
 
-    public static PlayerData pretend(
+    public static CompletableFuture<PlayerData> pretend(
             UUID uniqueId,
             String username,
             UUID rewriteUniqueId,
@@ -122,168 +172,793 @@ public class PlayerDataFetcher {
 
         if (fetchProperties) {
             // Try getting profile's properties
-            var data = new PlayerDataFetcher(username, uniqueId, logger)
+            return new PlayerDataFetcher(username, uniqueId, logger)
                     .setForceErrorMessages(true)
                     .updateMessages()
                     .execute()
-                    .join();
-            if (data.containsFirst()) {
-                var playerData = new PlayerData(
-                        uniqueId,
-                        username,
-                        rewriteUniqueId == null ? data.getFirst().getUniqueId() : rewriteUniqueId
-                );
-                playerData.setProperties(data.getFirst().getProperties());
-                pretendMap.put(uniqueId, playerData);
-                return playerData;
-            }
-            return null;
+                    .handle((data, ex) -> {
+                        if (ex != null) {
+                            logger.logError(getPrefix(null), "Failed to fetch player's data!", ex);
+                            return null;
+                        }
+                        if (data.containsFirst()) {
+                            var playerData = new PlayerData(
+                                    uniqueId,
+                                    username,
+                                    rewriteUniqueId == null ? data.getFirst().getUniqueId() : rewriteUniqueId
+                            );
+                            playerData.setProperties(data.getFirst().getProperties());
+                            pretendMap.put(uniqueId, playerData);
+                            return playerData;
+                        }
+                        return null;
+                    });
         } else {
-            if (rewriteUniqueId == null)
-                rewriteUniqueId = Utils.generateOfflineUniqueId(username);
-            var data = new PlayerData(uniqueId, username, rewriteUniqueId);
+            var data = new PlayerData(uniqueId, username, rewriteUniqueId == null
+                    ? Utils.generateOfflineUniqueId(username)
+                    : rewriteUniqueId);
             data.setProperties(new ArrayList<>());
             pretendMap.put(uniqueId, data);
-            return data;
+            return CompletableFuture.completedFuture(data);
         }
     }
 
+    /**
+     * Park fetch which was started before player's login, until login takes it with {@link #takePrefetch(String, UUID)}
+     */
+    public static void parkPrefetch(String username, UUID uniqueId, CompletableFuture<BiObjectHolder<OnlinePlayerData, Message>> future) {
+        clearPrefetchSessions();
+        var previous = prefetchSessions.put(username.toLowerCase(Locale.ROOT),
+                new PrefetchSession(uniqueId, future, System.currentTimeMillis()));
+        if (previous != null)
+            discardPrefetch(previous);
+    }
+
+    /**
+     * @return Prefetched player's data, null if player was not prefetched (or it was too long ago)
+     */
+    public static CompletableFuture<BiObjectHolder<OnlinePlayerData, Message>> takePrefetch(String username, UUID uniqueId) {
+        if (prefetchSessions.isEmpty())
+            return null;
+        var session = prefetchSessions.remove(username.toLowerCase(Locale.ROOT));
+        if (session == null)
+            return null;
+        if (session.isExpired() || !session.uniqueId().equals(uniqueId)) {
+            discardPrefetch(session);
+            return null;
+        }
+        return session.future();
+    }
+
+    public static void clearPrefetchSessions() {
+        prefetchSessions.values().removeIf(session -> {
+            if (!session.isExpired())
+                return false;
+            discardPrefetch(session);
+            return true;
+        });
+    }
+
+    private static void discardPrefetch(PrefetchSession session) {
+        // Player didn't log in, nobody is going to take fetched data
+        session.future().thenAccept(output -> {
+            if (output == null || !output.containsFirst())
+                return;
+            fetchedPlayerDataCopies.compute(session.uniqueId(), (key, copies) -> {
+                if (copies != null && copies > 1)
+                    return copies - 1;
+                fetchedPlayerDataMap.remove(key, output.getFirst());
+                return null;
+            });
+        });
+    }
+
     public static boolean isThrottled(UUID uniqueId, ObjectHolder<Long> timeLeft) {
         var throttle = MultiPlatform.get().getConfiguration().getOnlineAuthentication().getServiceConnectionThrottle();
-        throttledConnections.entrySet().removeIf(next -> next.getValue() + throttle <= System.currentTimeMillis());
-        if (timeLeft != null) {
-            var when = throttledConnections.get(uniqueId);
-            if (when == null) return false;
+        var when = throttledConnections.get(uniqueId, throttle);
+        if (when == null)
+            return false;
+        if (timeLeft != null)
             timeLeft.set((when + throttle - System.currentTimeMillis()) / 1000);
-            return true;
+        return true;
+    }
+
+    /**
+     * Each service has its own client (and connection pool), so a slow service can't affect the others. Client is
+     * reused (also after reload) as long as service's client settings are the same.
+     */
+    static HttpClient getClient(Configuration.ServiceConfiguration service) {
+        var settings = new HttpClientSettings(service.getConnectTimeout(), service.getHttpVersion(), service.getRedirectPolicy());
+        return httpClients.compute(service.getName(), (name, current) -> {
+            if (current != null && current.settings().equals(settings))
+                return current;
+            var builder = HttpClient.newBuilder()
+                    .executor(MultiPlatform.get().getHttpClientExecutor())
+                    .version(settings.version())
+                    .followRedirects(settings.redirectPolicy());
+            if (settings.connectTimeout() > 0)
+                builder.connectTimeout(Duration.ofMillis(settings.connectTimeout()));
+            return new ServiceHttpClient(settings, builder.build());
+        }).client();
+    }
+
+    /**
+     * Forget clients of services that no longer exist
+     * @param serviceNames Currently defined service names
+     */
+    public static void retainHttpClients(Collection<String> serviceNames) {
+        httpClients.keySet().retainAll(serviceNames);
+    }
+
+    public record InFlightKey(UUID originalUniqueId, String serviceName) {}
+
+    private record PrefetchSession(UUID uniqueId, CompletableFuture<BiObjectHolder<OnlinePlayerData, Message>> future, long createdAt) {
+        boolean isExpired() {
+            var sessionTime = MultiPlatform.get().getConfiguration().getOnlineAuthentication().getPrefetchSessionTime();
+            return System.currentTimeMillis() - createdAt > sessionTime;
         }
-        return throttledConnections.containsKey(uniqueId);
     }
 
+    private record HttpClientSettings(long connectTimeout, HttpClient.Version version, HttpClient.Redirect redirectPolicy) {}
+
+    private record ServiceHttpClient(HttpClientSettings settings, HttpClient client) {}
+
     private static String getPrefix(String name) {
         if (name != null)
             return "PlayerDataFetcher/" + name;
         return "PlayerDataFetcher";
     }
 
-    public static void forgetLastUsedService() {
-        lastUsedServiceAt = 0;
-        lastUsedService = null;
-    }
-
     private void logResponseHandler(BreakContinuationException ex) {
         if (sendMessages)
             logger.logInfo(servicePrefix, "[DEBUG] Response handler did not allow service to finish: %s", ex.getMessage());
     }
 
+    /**
+     * Fetch player's data, if {@link #shareInFlightRequests} is enabled and the same player is already being
+     * fetched, attach to that request instead of making a new one.
+     * @return Completable future for async
+     */
     public CompletableFuture<BiObjectHolder<OnlinePlayerData, Message>> execute() {
-        return CompletableFuture.supplyAsync(() -> {
-            var database = MultiPlatform.get().getDatabase();
-            if (checkDatabaseCache && database.isDriverRunning()) {
-                var current = System.nanoTime();
-                var databaseObject = database.getOnlinePlayerCache(uniqueId);
-                var took = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - current);
-                if (!databaseObject.hasError()) {
-                    var fetched = databaseObject.object;
-                    logger.logInfo(
-                            servicePrefix,
-                            "Unique ID successfully fetched (from cache) for %s => %s (took %sms)",
-                            username, fetched.getUniqueId(), took
-                    );
-                    disconnect = false;
-                    fetchedPlayerData = fetched;
-                    placeholders.put("fetched-uuid", fetched.getUniqueId().toString());
-                    placeholders.put("fetched-dashless-uuid", Utils.toDashlessUniqueId(fetched.getUniqueId()));
-                    placeholders.put("execution-time", took);
-                    placeholders.put("took", took);
-                    try {
-                        handleResponse(ServiceStateEvent.DATABASE_FETCHED);
-                    } catch (BreakContinuationException ex) {
-                        logResponseHandler(ex);
-                    }
-                    return getOutput();
+        var noProfile = getNoProfileCache(username);
+        if (noProfile != null)
+            return CompletableFuture.completedFuture(getNoProfileOutput(noProfile));
+        // Fetch (which might be shared or hedged) doesn't store the data, every caller stores its own copy below
+        var storeFetchedData = cacheFetchedData;
+        cacheFetchedData = false;
+        CompletableFuture<BiObjectHolder<OnlinePlayerData, Message>> future;
+        if (shareInFlightRequests) {
+            var key = new InFlightKey(uniqueId, config.getServiceName());
+            var created = new ObjectHolder<>(false);
+            future = inFlightFetches.computeIfAbsent(key, k -> {
+                created.set(true);
+                try {
+                    return fetch();
+                } catch (RuntimeException ex) {
+                    return CompletableFuture.failedFuture(ex);
                 }
+            });
+            if (created.get()) {
+                // Removed however it completes (including exceptionally or cancelled)
+                var shared = future;
+                shared.whenComplete((data, ex) -> inFlightFetches.remove(key, shared));
+            } else if (sendMessages) {
+                logger.logInfo(getPrefix(null), "Player's %s data is already being fetched, waiting for that request.", username);
             }
+        } else {
+            future = fetch();
+        }
+        // Callers get their own future, so cancelling it doesn't cancel the shared fetch
+        return future.thenApply(output -> {
+            if (storeFetchedData && output != null && output.containsFirst())
+                storeFetchedPlayerData(uniqueId, output.getFirst());
+            return output;
+        });
+    }
 
-            var services = new ArrayList<>(config.getFallbackServices());
-            services.add(0, config.getServiceName());
-
-            // Make last used (successful) service first
-            if (lastUsedService != null) {
-                var rememberTime = config.getFallbackServiceRememberTime();
-                if (rememberTime != -1 && lastUsedServiceAt + rememberTime >= System.currentTimeMillis()) {
-                    lastUsedService = null;
-                    lastUsedServiceAt = 0;
-                } else {
-                    services.remove(0); // Remove use-service because it previously failed
-                    services.remove(lastUsedService); // Remove because it will duplicate
-                    services.add(0, lastUsedService);
+    private CompletableFuture<BiObjectHolder<OnlinePlayerData, Message>> fetch() {
+        if (config.getMaxTimeout() > 0)
+            startDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getMaxTimeout()));
+        CompletableFuture<BiObjectHolder<OnlinePlayerData, Message>> cache;
+        try {
+            cache = CompletableFuture.supplyAsync(() -> {
+                var cached = fetchFromCache();
+                return cached != null ? cached : fetchNoProfileFromDatabase();
+            }, MultiPlatform.get().getDatabaseExecutor());
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        return cache.thenCompose(cached -> {
+            if (cached != null)
+                return CompletableFuture.completedFuture(cached);
+            return admit().thenCompose(admitted -> {
+                if (!admitted)
+                    return CompletableFuture.completedFuture(getAdmissionRejectedOutput());
+                CompletableFuture<BiObjectHolder<OnlinePlayerData, Message>> future;
+                try {
+                    // Network executor's queue limit applies here, HTTP clients never reject their tasks
+                    future = CompletableFuture.supplyAsync(this::fetchFromServices, MultiPlatform.get().getNetworkExecutor())
+                            .thenCompose(Function.identity());
+                } catch (RuntimeException ex) {
+                    future = CompletableFuture.failedFuture(ex);
                 }
+                return future.whenComplete((output, ex) -> MultiPlatform.get().getAdmissionController().release());
+            });
+        });
+    }
+
+    private CompletableFuture<BiObjectHolder<OnlinePlayerData, Message>> fetchFromServices() {
+        var services = new ArrayList<>(config.getFallbackServices());
+        services.add(0, config.getServiceName());
+        if (config.getAdaptiveServiceOrder().isEnabled())
+            orderServices(services);
+
+        if (sendMessages)
+            logger.logInfo(getPrefix(null), "Player's %s original unique ID is %s", username, uniqueId);
+
+        return fetchServices(services, config.isHedgeRequests())
+                .thenCompose(ignored -> finishFetch())
+                .thenApply(this::useStaleIfError);
+    }
+
+    /**
+     * Wait for a free slot to request services, players which were fetched before go first
+     * @return true if services can be requested
+     */
+    private CompletableFuture<Boolean> admit() {
+        var lane = knownPlayer ? AdmissionLane.KNOWN : AdmissionLane.UNKNOWN;
+        var admission = MultiPlatform.get().getAdmissionController().acquire(lane);
+        if (admission.isDone())
+            return admission;
+        if (sendMessages)
+            logger.logInfo(getPrefix(null), "Too many players are being fetched, %s is waiting in the queue.", username);
+        var start = System.nanoTime();
+        return admission.thenApply(admitted -> {
+            var waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (sendDebugMessages)
+                logger.logInfo(getPrefix(null), "[DEBUG] Player %s waited %sms in the queue.", username, waited);
+            totalExecutionTime += waited;
+            updateTotalExecutionTime();
+            return admitted;
+        });
+    }
+
+    private BiObjectHolder<OnlinePlayerData, Message> getAdmissionRejectedOutput() {
+        if (sendErrorMessages)
+            logger.logWarning(getPrefix(null), "Too many players are being fetched, %s couldn't be admitted!", null, username);
+        setService(config.getServiceName());
+        if (service == null)
+            return new BiObjectHolder<>(null, new Message(Utils.GENERIC_DISCONNECT_MESSAGE_ID, true));
+        placeholders.put("username", username);
+        placeholders.put("uuid", uniqueId.toString());
+        placeholders.put("service-name", service.getName());
+        disconnectNoThrow(config.getAdmissionControl().getRejectedDisconnectMessage());
+        return getOutput();
+    }
+
+    /**
+     * Services with enough recorded requests are sorted by expected time until a successful response, the rest keep
+     * their defined place
+     */
+    private void orderServices(List<String> services) {
+        var minimumSamples = config.getAdaptiveServiceOrder().getMinimumSamples();
+        var slots = new ArrayList<Integer>();
+        // Statistics keep changing, so they're only read once
+        var expectedTimes = new HashMap<String, Double>();
+        for (int i = 0; i < services.size(); i++) {
+            var service = config.getService(services.get(i));
+            if (service == null || service.getStatistics().getSamples() < minimumSamples)
+                continue;
+            slots.add(i);
+            expectedTimes.put(service.getName(), service.getStatistics().getExpectedTimeToSuccess());
+        }
+        if (slots.size() < 2)
+            return;
+        var ordered = slots.stream()
+                .map(services::get)
+                .sorted(Comparator.comparingDouble(expectedTimes::get))
+                .toList();
+        for (int i = 0; i < slots.size(); i++)
+            services.set(slots.get(i), ordered.get(i));
+    }
+
+    /**
+     * Apply statistics stored in the database to services which have not recorded any requests yet
+     */
+    public static void loadServiceStatistics() {
+        var platform = MultiPlatform.get();
+        var database = platform.getDatabase();
+        var config = platform.getConfiguration().getOnlineAuthentication();
+        if (!config.getAdaptiveServiceOrder().isEnabled() || !database.isDriverRunning())
+            return;
+        var databaseObject = database.getServiceStatistics();
+        if (databaseObject.hasError()) {
+            databaseObject.printErrorIfAny();
+            return;
+        }
+        if (databaseObject.object == null)
+            return;
+        for (var stored : databaseObject.object) {
+            var service = config.getService(stored.getServiceName());
+            if (service != null)
+                service.getStatistics().load(stored);
+        }
+    }
+
+    public static void saveServiceStatistics() {
+        var platform = MultiPlatform.get();
+        var config = platform.getConfiguration().getOnlineAuthentication();
+        if (!config.getAdaptiveServiceOrder().isEnabled() || !platform.getDatabase().isDriverRunning())
+            return;
+        platform.getDatabase().storeServiceStatistics(config.getServices()
+                .stream()
+                .map(service -> service.getStatistics().copy())
+                .filter(statistics -> statistics.getSamples() > 0)
+                .toList());
+    }
+
+    private void recordServiceStatistics() {
+        var adaptive = config.getAdaptiveServiceOrder();
+        var statistics = service.getStatistics();
+        var samples = statistics.record(serviceTook, serviceFailed, adaptive.getSmoothing());
+        if (!adaptive.isEnabled() || adaptive.getSaveEvery() == 0 || samples % adaptive.getSaveEvery() != 0)
+            return;
+        var database = MultiPlatform.get().getDatabase();
+        if (!database.isDriverRunning())
+            return;
+        var snapshot = List.of(statistics.copy());
+        if (!MultiPlatform.get().getDatabaseExecutor().tryExecute(() -> database.storeServiceStatistics(snapshot))
+                && sendDebugMessages)
+            logger.logInfo(servicePrefix, "[DEBUG] Database executor is busy, statistics will be stored later.");
+    }
+
+    /**
+     * Memory cache is checked first, then the database. Expired data is only used as configured in
+     * {@code stale-cache-mode}.
+     */
+    private BiObjectHolder<OnlinePlayerData, Message> fetchFromCache() {
+        if (!checkDatabaseCache)
+            return null;
+        setService(config.getServiceName());
+        var current = System.nanoTime();
+        var cached = cachedPlayerDataMap.get(uniqueId);
+        if (cached == null)
+            cached = fetchFromDatabase();
+        knownPlayer = cached != null;
+        if (cached == null || !isCacheUsable(cached))
+            return null;
+        var took = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - current);
+        if (cached.isExpired()) {
+            if (config.getStaleCacheMode() == StaleCacheMode.STALE_IF_ERROR) {
+                staleCachedData = cached;
+                return null;
             }
+            if (!cacheDatabase) // Refreshed data wouldn't be cached anyway
+                return null;
+            revalidate();
+        }
+        return useCachedPlayerData(cached, took);
+    }
 
-            var prefix = getPrefix(null);
+    private OnlinePlayerData fetchFromDatabase() {
+        var database = MultiPlatform.get().getDatabase();
+        if (!database.isDriverRunning())
+            return null;
+        var databaseObject = database.getOnlinePlayerCache(uniqueId);
+        if (databaseObject.hasError() || databaseObject.object == null)
+            return null;
+        // Database doesn't know which service fetched the data
+        if (service != null)
+            databaseObject.object.setTimeKeep(Math.max(-1, TimeUnit.MINUTES.toMillis(service.getCacheKeepTime())));
+        return databaseObject.object;
+    }
 
-            if (sendMessages)
-                logger.logInfo(prefix, "Player's %s original unique ID is %s", username, uniqueId);
+    /**
+     * @return false if data has expired and can't be used even as stale data
+     */
+    private static boolean isCacheUsable(OnlinePlayerData data) {
+        if (!data.isExpired())
+            return true;
+        var config = MultiPlatform.get().getConfiguration().getOnlineAuthentication();
+        if (config.getStaleCacheMode() == StaleCacheMode.NONE)
+            return false;
+        return config.getMaxStaleTime() < 0 || data.getExpiredFor() <= TimeUnit.MINUTES.toMillis(config.getMaxStaleTime());
+    }
 
-            int ignored = 0;
-            for (int i = 0; i < services.size(); i++) {
-                var name = services.get(i);
-                setService(name);
+    private BiObjectHolder<OnlinePlayerData, Message> useCachedPlayerData(OnlinePlayerData cached, long took) {
+        setService(config.getServiceName());
+        logger.logInfo(
+                servicePrefix,
+                "Unique ID successfully fetched (from %scache) for %s => %s (took %sms)",
+                cached.isExpired() ? "expired " : "", username, cached.getUniqueId(), took
+        );
+        disconnect = false;
+        fetchedPlayerData = cached;
+        placeholders.put("fetched-uuid", cached.getUniqueId().toString());
+        placeholders.put("fetched-dashless-uuid", Utils.toDashlessUniqueId(cached.getUniqueId()));
+        placeholders.put("execution-time", took);
+        placeholders.put("took", took);
+        if (cacheFetchedData)
+            storeFetchedPlayerData(uniqueId, cached);
+        if (service != null) {
+            try {
+                handleResponse(ServiceStateEvent.DATABASE_FETCHED);
+            } catch (BreakContinuationException ex) {
+                logResponseHandler(ex);
+            }
+        }
+        return getOutput();
+    }
 
-                if (i - ignored == 1 && sendErrorMessages)
-                    logger.logWarning(prefix, "Defined service's name in 'use-service' failed, using fallback ones!", null);
+    /**
+     * Request services in the background to refresh player's expired cached data
+     */
+    private void revalidate() {
+        if (!revalidatingPlayers.add(uniqueId))
+            return;
+        if (sendMessages)
+            logger.logInfo(getPrefix(null), "Player's %s cached data has expired, refreshing it in the background.", username);
+        new PlayerDataFetcher(username, uniqueId, logger)
+                .setCacheDatabase(true)
+                .setForceErrorMessages(forceErrorMessages)
+                .updateMessages()
+                .fetch()
+                .whenComplete((output, ex) -> {
+                    revalidatingPlayers.remove(uniqueId);
+                    if (ex != null && sendErrorMessages)
+                        logger.logError(getPrefix(null), "Failed to refresh player's %s cached data!", ex, username);
+                });
+    }
 
-                if (service == null) {
-                    if (sendMessages)
-                        logger.logWarning(servicePrefix, "I do not exist in this universe, I shall vanish...", null, name);
-                    continue;
-                }
+    /**
+     * Use expired cached data if services failed, but not if a response handler decided to disconnect the player
+     */
+    private BiObjectHolder<OnlinePlayerData, Message> useStaleIfError(BiObjectHolder<OnlinePlayerData, Message> output) {
+        if (staleCachedData == null || disconnectedByHandler || output.containsFirst() || !output.containsSecond())
+            return output;
+        if (sendErrorMessages)
+            logger.logWarning(getPrefix(null), "All services failed, using expired cached data of %s.", null, username);
+        return useCachedPlayerData(staleCachedData, totalExecutionTime);
+    }
 
-                if (!service.isEnabled()) {
-                    if (sendDebugMessages)
-                        logger.logInfo(servicePrefix, "[DEBUG] Service is disabled, skipping.");
-                    ignored++;
-                    continue;
-                }
+    /**
+     * @return Remembered player without online profile, null if there's none or it has expired
+     */
+    public static NoProfileData getNoProfileCache(String username) {
+        var noProfileConfig = MultiPlatform.get().getConfiguration().getOnlineAuthentication().getNoProfileCache();
+        if (!noProfileConfig.isEnabled() || noProfileCache.isEmpty())
+            return null;
+        var key = username.toLowerCase(Locale.ROOT);
+        var player = noProfileCache.get(key);
+        if (player != null && player.isExpired(noProfileConfig.getKeepTimeMillis())) {
+            noProfileCache.remove(key, player);
+            return null;
+        }
+        return player;
+    }
 
-                if (service.getJsonPathToUuid() == null && service.getJsonPathToProperties() == null) {
-                    if (sendErrorMessages)
-                        logger.logWarning(prefix, "Service '%s' doesn't have JSON path to unique ID not properties! Skipping.", null, name);
-                    ignored++;
-                    continue;
-                }
+    public static void clearNoProfileCache() {
+        var noProfileConfig = MultiPlatform.get().getConfiguration().getOnlineAuthentication().getNoProfileCache();
+        trimNoProfileCache(noProfileConfig.getMaxEntries(), noProfileConfig.getKeepTimeMillis());
+    }
 
-                try {
-                    if (!service.canSendRequest()) {
-                        if (sendErrorMessages)
-                            logger.logWarning(servicePrefix, "Service got rate-limited!", null, name);
-                        if (!disconnectCheckFallback(service.getRateLimitedDisconnectMessage(), FallbackUsage.ON_SERVICE_RATE_LIMITED))
-                            break;
-                    }
-                } catch (BreakContinuationException ex) {
-                    break;
-                }
+    private static void putNoProfileCache(NoProfileData player, Configuration.NoProfileCacheConfiguration noProfileConfig) {
+        noProfileCache.put(player.getUsername(), player);
+        noProfileOrder.add(player);
+        trimNoProfileCache(noProfileConfig.getMaxEntries(), noProfileConfig.getKeepTimeMillis());
+    }
 
-                try {
-                    if (!fetchService())
-                        break;
-                } catch (BreakContinuationException ex) {
-                    logResponseHandler(ex);
-                    break;
-                }
+    /**
+     * Forget expired players and, if cache is still full, the oldest remembered ones. Players are forgotten in the
+     * order they were remembered, so only forgotten players are visited.
+     */
+    private static synchronized void trimNoProfileCache(int maxEntries, long keepTime) {
+        for (var oldest = noProfileOrder.peek(); oldest != null; oldest = noProfileOrder.peek()) {
+            var current = noProfileCache.get(oldest.getUsername()) == oldest;
+            if (current && noProfileCache.size() <= maxEntries && !oldest.isExpired(keepTime))
+                break;
+            noProfileOrder.poll();
+            noProfileCache.remove(oldest.getUsername(), oldest);
+        }
+    }
+
+    private BiObjectHolder<OnlinePlayerData, Message> fetchNoProfileFromDatabase() {
+        var noProfileConfig = config.getNoProfileCache();
+        var database = MultiPlatform.get().getDatabase();
+        if (!noProfileConfig.isEnabled() || !noProfileConfig.isStoreInDatabase() || !database.isDriverRunning())
+            return null;
+        var databaseObject = database.getNoProfileCache(username.toLowerCase(Locale.ROOT));
+        if (databaseObject.hasError()) {
+            if (sendErrorMessages)
+                databaseObject.printErrorIfAny();
+            return null;
+        }
+        var player = databaseObject.object;
+        if (player == null || player.isExpired(noProfileConfig.getKeepTimeMillis()))
+            return null;
+        putNoProfileCache(player, noProfileConfig);
+        return getNoProfileOutput(player);
+    }
+
+    /**
+     * Same output as service gave when player was remembered
+     */
+    private BiObjectHolder<OnlinePlayerData, Message> getNoProfileOutput(NoProfileData player) {
+        setService(player.getServiceName());
+        if (service == null) // Service was removed, but its decision can still be used
+            setService(config.getServiceName());
+        if (service == null)
+            return new BiObjectHolder<>(null, player.isAllowedToJoin() ? null : new Message(Utils.GENERIC_DISCONNECT_MESSAGE_ID, true));
+        if (sendMessages)
+            logger.logInfo(servicePrefix, "Player %s has no online profile (remembered), skipping services.", username);
+        placeholders.put("username", username);
+        placeholders.put("uuid", uniqueId.toString());
+        placeholders.put("service-name", service.getName());
+        if (player.isAllowedToJoin()) {
+            disconnect = false;
+            disconnectMessage = null;
+        } else {
+            disconnectNoThrow(player.getDisconnectMessage());
+        }
+        return getOutput();
+    }
+
+    private void rememberNoProfile(boolean allowedToJoin, String disconnectMessage) {
+        var noProfileConfig = config.getNoProfileCache();
+        if (!noProfileConfig.isEnabled())
+            return;
+        var player = new NoProfileData(username.toLowerCase(Locale.ROOT), service.getName(), allowedToJoin,
+                disconnectMessage, System.currentTimeMillis());
+        putNoProfileCache(player, noProfileConfig);
+        var database = MultiPlatform.get().getDatabase();
+        if (noProfileConfig.isStoreInDatabase() && database.isDriverRunning())
+            storeInDatabase(() -> database.storeNoProfileCache(player));
+        if (sendDebugMessages)
+            logger.logInfo(servicePrefix, "[DEBUG] Remembering that player %s has no online profile.", username);
+    }
+
+    private CompletableFuture<BiObjectHolder<OnlinePlayerData, Message>> finishFetch() {
+        if (deadlineExceeded && disconnect && !disconnectedByHandler) {
+            if (sendErrorMessages)
+                logger.logWarning(getPrefix(null), "Ran out of time (%sms), requests in progress were cancelled!", null, config.getMaxTimeout());
+            disconnectNoThrow(service == null ? null : service.getTimeoutDisconnectMessage());
+        }
+
+        if (sendMessages && totalExecutionTime != 0)
+            logger.logInfo(getPrefix(null), "Took %s/%sms to fetch data.", totalExecutionTime, config.getMaxTimeout());
+
+        if (config.getServiceConnectionThrottle() > 0)
+            throttledConnections.put(uniqueId, System.currentTimeMillis());
+
+        CompletableFuture<BiObjectHolder<OnlinePlayerData, Message>> hedge;
+        synchronized (this) {
+            firstServiceInProgress = false;
+            hedge = hedgeFuture;
+        }
+        if (hedge != null) {
+            if (cancelled || handedOverToHedge)
+                return hedge;
+            hedgeFetcher.cancel();
+        }
+
+        return CompletableFuture.completedFuture(getOutput());
+    }
+
+    private CompletableFuture<Void> fetchServices(List<String> services, boolean hedge) {
+        return fetchServices(services, hedge, 0, 0, 0);
+    }
+
+    /**
+     * Request services one after another, starting from the given index. Next service is only requested once the
+     * previous one completes and asks to use fallbacks.
+     */
+    private CompletableFuture<Void> fetchServices(List<String> services, boolean hedge, int from, int ignored, int attempted) {
+        var prefix = getPrefix(null);
+        for (int i = from; i < services.size(); i++) {
+            if (cancelled)
+                break;
+
+            var name = services.get(i);
+            setService(name);
+
+            if (i - ignored == 1 && sendErrorMessages)
+                logger.logWarning(prefix, "Defined service's name in 'use-service' failed, using fallback ones!", null);
+
+            if (service == null) {
+                if (sendMessages)
+                    logger.logWarning(servicePrefix, "I do not exist in this universe, I shall vanish...", null, name);
+                continue;
+            }
+
+            if (!service.isEnabled()) {
+                if (sendDebugMessages)
+                    logger.logInfo(servicePrefix, "[DEBUG] Service is disabled, skipping.");
+                ignored++;
+                continue;
+            }
+
+            if (service.getJsonPathToUuid() == null && service.getJsonPathToProperties() == null) {
+                if (sendErrorMessages)
+                    logger.logWarning(prefix, "Service '%s' doesn't have JSON path to unique ID not properties! Skipping.", null, name);
+                ignored++;
+                continue;
+            }
+
+            // Bulk lookups are rate-limited once per bulk request
+            var permit = service.isRequestedPerPlayer()
+                    ? acquireRequest()
+                    : CompletableFuture.completedFuture(true);
+            var index = i;
+            var ignoredCount = ignored;
+            var attemptedCount = attempted;
+            if (!permit.isDone())
+                return permit.thenCompose(allowed -> allowed && !cancelled
+                        ? fetchPermittedService(services, hedge, index, ignoredCount, attemptedCount)
+                        : skipRateLimitedService(services, hedge, index, ignoredCount, attemptedCount));
+            if (!permit.join())
+                return skipRateLimitedService(services, hedge, index, ignoredCount, attemptedCount);
+            return fetchPermittedService(services, hedge, index, ignoredCount, attemptedCount);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Wait for service's rate limit to free up if its queue is enabled and there's enough time left
+     * @return true if request can be sent
+     */
+    private CompletableFuture<Boolean> acquireRequest() {
+        var remaining = getRemainingTime();
+        long maxWait;
+        if (remaining >= 0)
+            maxWait = remaining - config.getMinTimeout();
+        else
+            maxWait = service.getTimeout() > 0 ? service.getTimeout() : 5000;
+        var start = System.nanoTime();
+        var permit = service.getRateLimitQueue().acquire(service.getRateLimitQueueSize(), maxWait);
+        if (permit.isDone())
+            return permit;
+        if (sendDebugMessages)
+            logger.logInfo(servicePrefix, "[DEBUG] Service is rate-limited, waiting up to %sms in the queue.", maxWait);
+        pendingRequests.add(permit);
+        return permit.thenApply(allowed -> {
+            pendingRequests.remove(permit);
+            var waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (sendDebugMessages)
+                logger.logInfo(servicePrefix, "[DEBUG] Waited %sms for the rate limit, %s.", waited,
+                        allowed ? "sending request" : "still rate-limited");
+            totalExecutionTime += waited;
+            updateTotalExecutionTime();
+            return allowed;
+        }).exceptionally(ex -> false);
+    }
+
+    private CompletableFuture<Void> skipRateLimitedService(List<String> services, boolean hedge, int index, int ignored, int attempted) {
+        if (cancelled)
+            return CompletableFuture.completedFuture(null);
+        if (sendErrorMessages)
+            logger.logWarning(servicePrefix, "Service got rate-limited!", null);
+        try {
+            if (!disconnectCheckFallback(service.getRateLimitedDisconnectMessage(), FallbackUsage.ON_SERVICE_RATE_LIMITED))
+                return CompletableFuture.completedFuture(null);
+        } catch (BreakContinuationException ex) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return fetchServices(services, hedge, index + 1, ignored, attempted);
+    }
+
+    private CompletableFuture<Void> fetchPermittedService(List<String> services, boolean hedge, int index, int ignored, int attempted) {
+        circuitBreakerPermitted = service.getCircuitBreaker().tryAcquirePermission(config.getCircuitBreaker());
+        if (!circuitBreakerPermitted) {
+            if (index + 1 < services.size()) {
+                if (sendMessages)
+                    logger.logWarning(servicePrefix, "Service is failing (circuit breaker is open), skipping.", null);
+                if (service.isRequestedPerPlayer())
+                    service.releaseRequest();
+                return fetchServices(services, hedge, index + 1, ignored, attempted);
             }
+            if (sendMessages)
+                logger.logWarning(servicePrefix, "Service is failing (circuit breaker is open), but there are no other services left.", null);
+        }
 
-            if (sendMessages && totalExecutionTime != 0)
-                logger.logInfo(prefix, "Took %s/%sms to fetch data.", totalExecutionTime, config.getMaxTimeout());
+        if (hedge && attempted++ == 0 && index + 1 < services.size())
+            scheduleHedge(services.subList(index + 1, services.size()));
+
+        var attemptedCount = attempted;
+        return fetchService().handle((next, ex) -> {
+            if (ex != null) {
+                if (!(unwrap(ex) instanceof BreakContinuationException breakEx))
+                    throw new CompletionException(unwrap(ex));
+                if (!cancelled)
+                    logResponseHandler(breakEx);
+                return false;
+            }
+            synchronized (this) {
+                firstServiceInProgress = false;
+                // Fallback services are already being requested by the hedged request
+                if (next && hedgeFuture != null)
+                    handedOverToHedge = true;
+            }
+            return next && !handedOverToHedge;
+        }).thenCompose(next -> next
+                ? fetchServices(services, hedge, index + 1, ignored, attemptedCount)
+                : CompletableFuture.completedFuture(null));
+    }
 
-            if (config.getServiceConnectionThrottle() > 0)
-                throttledConnections.put(uniqueId, System.currentTimeMillis());
+    private void scheduleHedge(List<String> fallbackServices) {
+        if (!service.getUseFallbacks().contains(FallbackUsage.ON_SERVICE_TIMEOUT))
+            return;
+        var primary = service;
+        var tracker = primary.getLatencyTracker();
+        var delay = config.getHedgeDelay();
+        if (config.isHedgeOnObservedLatency() && tracker.getSampleCount() >= LatencyTracker.MIN_SAMPLES)
+            delay = tracker.getPercentile(95);
+        synchronized (this) {
+            firstServiceInProgress = true;
+        }
+        MultiPlatform.get().getNetworkExecutor().delayed(delay, TimeUnit.MILLISECONDS).execute(() -> {
+            var fetcher = new PlayerDataFetcher(username, uniqueId, logger)
+                    .setCacheFetchedData(cacheFetchedData)
+                    .setCacheDatabase(cacheDatabase)
+                    .setForceErrorMessages(forceErrorMessages)
+                    .updateMessages();
+            var future = new CompletableFuture<BiObjectHolder<OnlinePlayerData, Message>>();
+            synchronized (this) {
+                if (!firstServiceInProgress || cancelled)
+                    return;
+                if (sendMessages)
+                    logger.logInfo(getPrefix(primary.getName()), "Service is taking too long, requesting next fallback service in parallel.");
+                hedgeFetcher = fetcher;
+                hedgeFuture = future;
+            }
+            fetcher.startDeadline(deadline);
+            fetcher.fetchServices(fallbackServices, false)
+                    .thenApply(ignored -> fetcher.getOutput())
+                    .whenComplete((output, ex) -> {
+                        if (ex != null)
+                            future.completeExceptionally(ex);
+                        else
+                            future.complete(output);
+                    });
+            future.thenAccept(output -> {
+                if (!output.containsSecond())
+                    cancel(); // Hedged request won, no need to wait for the primary service
+            });
+        });
+    }
 
-            return getOutput();
+    /**
+     * Cancel everything that is still in progress once the deadline passes
+     * @param deadline System.nanoTime() by which the fetch has to finish, 0 if there's no limit
+     */
+    private void startDeadline(long deadline) {
+        this.deadline = deadline;
+        if (deadline == 0)
+            return;
+        var delay = Math.max(0, deadline - System.nanoTime());
+        // Cancelling completes the login, so whatever continues it must not run on the client's executor
+        MultiPlatform.get().getGeneralExecutor().delayed(delay, TimeUnit.NANOSECONDS).execute(() -> {
+            if (cancelled)
+                return;
+            deadlineExceeded = true;
+            cancel();
         });
     }
 
+    /**
+     * @return Time in milliseconds until the deadline, -1 if there's no deadline
+     */
+    private long getRemainingTime() {
+        if (deadline == 0)
+            return -1;
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+
+    private void cancel() {
+        cancelled = true;
+        for (var request : pendingRequests)
+            request.cancel(true);
+    }
+
     public void setService(String name) {
         service = config.getService(name);
         if (service == null)
@@ -329,33 +1004,34 @@ public class PlayerDataFetcher {
     private void updateTotalExecutionTime() {
         placeholders.put("total-execution-time", totalExecutionTime);
         placeholders.put("total-took", totalExecutionTime);
-        if (config.getMaxTimeout() > 0) {
-            placeholders.put("total-execution-time-left", config.getMaxTimeout() - totalExecutionTime);
-            placeholders.put("total-took-left", config.getMaxTimeout() - totalExecutionTime);
-        } else {
-            placeholders.put("total-execution-time-left", -1);
-            placeholders.put("total-took-left", -1);
-        }
+        var remaining = getRemainingTime();
+        placeholders.put("total-execution-time-left", remaining);
+        placeholders.put("total-took-left", remaining);
     }
 
     private HttpRequest buildRequest(Configuration.ServiceConfiguration service, String prefix) {
+        if (service.getEndpointTemplate() == null) {
+            if (sendErrorMessages)
+                logger.logWarning(prefix, "Service has no endpoint to send request to!", null);
+            return null;
+        }
+
         var timeout = service.getTimeout();
-        if (config.getMaxTimeout() > 0) {
-            if (timeout == 0)
-                timeout = config.getMaxTimeout();
-            timeout -= totalExecutionTime;
-            if (config.getMinTimeout() > 0 && timeout <= config.getMinTimeout()) {
+        var remaining = getRemainingTime();
+        if (remaining >= 0) {
+            if (remaining == 0 || remaining <= config.getMinTimeout()) {
                 if (sendErrorMessages)
-                    logger.logWarning(prefix, "Not enough timed out, time-out left - %s, min timeout - %s", null, timeout, config.getMinTimeout());
+                    logger.logWarning(prefix, "Not enough timed out, time-out left - %s, min timeout - %s", null, remaining, config.getMinTimeout());
                 return null;
             }
+            timeout = timeout == 0 ? remaining : Math.min(timeout, remaining);
         }
 
         if (timeout == 0)
             timeout = 5000;
 
-        String queryString = Utils.replacePlaceholders(Utils.buildDataString(service.getQueryData()), placeholders);
-        String endpoint = Utils.replacePlaceholders(service.getEndpoint(), placeholders);
+        String queryString = service.getQueryDataTemplate().render(placeholders);
+        String endpoint = service.getEndpointTemplate().render(placeholders);
 
         if (!queryString.isBlank())
             endpoint += "?" + queryString;
@@ -367,14 +1043,14 @@ public class PlayerDataFetcher {
         builder.uri(URI.create(endpoint));
 
         if (service.getRequestMethod().equalsIgnoreCase("POST"))
-            builder.POST(HttpRequest.BodyPublishers.ofString(
-                    Utils.replacePlaceholders(Utils.buildDataString(service.getPostData()), placeholders)
-            ));
+            builder.POST(HttpRequest.BodyPublishers.ofString(service.getPostDataTemplate().render(placeholders)));
 
-        for (var header : service.getHeaders().entrySet())
+        if (service.isCompressResponses())
+            builder.setHeader("Accept-Encoding", BoundedBodyHandler.ACCEPT_ENCODING);
+        for (var header : service.getHeaderTemplates())
             builder.setHeader(
-                    Utils.replacePlaceholders(header.getKey(), placeholders),
-                    Utils.replacePlaceholders(header.getValue(), placeholders)
+                    header.getFirst().render(placeholders),
+                    header.getSecond().render(placeholders)
             );
 
         builder.timeout(Duration.ofMillis(timeout));
@@ -408,68 +1084,329 @@ public class PlayerDataFetcher {
                     disconnectMessage = null;
                 } else {
                     disconnectNoThrow(handler.getDisconnectMessage());
+                    disconnectedByHandler = true;
                 }
+                if (handler.isRememberNoProfile())
+                    rememberNoProfile(handler.getAllowPlayerToJoin(), handler.getDisconnectMessage());
                 throw new BreakContinuationException("getAllowPlayerToJoin was not null, disconnect message if any - " + handler.getDisconnectMessage());
             }
         }
     }
 
-    private ResponseData sendRequest(HttpRequest request, ObjectHolder<Long> timeTook) {
+    /**
+     * @param streamedJsonPaths If not null, only these JSON paths are extracted while reading the body, see
+     *                          {@link ResponseData#isStreamed()}
+     */
+    private CompletableFuture<ResponseData> sendRequestAsync(
+            Configuration.ServiceConfiguration service, HttpRequest request, ObjectHolder<Long> timeTook,
+            Collection<JsonPath> streamedJsonPaths) {
         Objects.requireNonNull(request);
         var current = System.nanoTime();
-        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .handle((response, ex) -> {
+        var cache = service.getHttpCacheSize() > 0 && request.method().equals("GET") ? service.getHttpCache() : null;
+        var cached = cache == null ? null : cache.get(request);
+        if (cached != null && cached.isFresh()) {
+            service.releaseRequest(); // Nothing is sent
+            if (sendDebugMessages)
+                logger.logInfo(getPrefix(service.getName()), "[DEBUG] Using cached response of %s", request.uri());
+            timeTook.set(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - current));
+            return CompletableFuture.completedFuture(new ResponseData(cached.toResponse(request), null, cached.getBody(), null));
+        }
+        var revalidating = cached != null && cached.canRevalidate() ? cached : null;
+        var sent = revalidating == null ? request : revalidating.toConditionalRequest(request);
+        // Cached responses need the whole body
+        var streamedPaths = cache == null ? streamedJsonPaths : null;
+        var exchange = getClient(service).sendAsync(sent, new BoundedBodyHandler(service.getMaxResponseBytes()));
+        // Body is already received, nothing here blocks
+        var future = exchange.thenApply(response -> {
+            if (revalidating != null && response.statusCode() == 304) {
+                cache.revalidated(revalidating, response);
+                if (sendDebugMessages)
+                    logger.logInfo(getPrefix(service.getName()), "[DEBUG] Cached response of %s is still valid", request.uri());
+                return new ResponseData(revalidating.toResponse(request), null, revalidating.getBody(), null);
+            }
+            // Only bodies declared as JSON are streamed, text bodies are still decoded as a whole
+            if (streamedPaths != null && BoundedBodyHandler.isJson(response))
+                return new ResponseData(response, null, null, extractJsonPaths(response, streamedPaths));
+            var body = BoundedBodyHandler.readString(response);
+            if (cache != null)
+                cache.store(request, response, body, service.getHttpCacheSize());
+            return new ResponseData(response, null, body, null);
+        });
+        pendingRequests.add(exchange);
+        if (cancelled)
+            exchange.cancel(true);
+        // Request's timeout only covers the headers, exchange also completes only once the whole body is received
+        var timedOut = new AtomicBoolean();
+        sent.timeout().ifPresent(timeout -> MultiPlatform.get().getNetworkExecutor()
+                .delayed(timeout.toNanos(), TimeUnit.NANOSECONDS)
+                .execute(() -> {
+                    if (!exchange.isDone() && timedOut.compareAndSet(false, true))
+                        exchange.cancel(true);
+                }));
+        var result = future
+                .handle((data, ex) -> {
+                    pendingRequests.remove(exchange);
                     timeTook.set(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - current));
-                    return new ResponseData(
-                            response, ex instanceof CompletionException && ex.getCause() != null
-                            ? ex.getCause() : ex);
-                }).join();
+                    if (ex != null && timedOut.get() && unwrap(ex) instanceof CancellationException)
+                        return new ResponseData(null, new HttpTimeoutException("request timed out"), null, null);
+                    if (ex != null)
+                        return new ResponseData(null, unwrap(ex), null, null);
+                    // Failed responses don't tell how long a usable response takes
+                    if (data.getResponse().statusCode() / 100 == 2)
+                        service.getLatencyTracker().record(timeTook.get());
+                    return data;
+                });
+        // Cancelling the result (unlike futures derived from it) aborts the exchange too
+        result.whenComplete((data, ex) -> {
+            if (result.isCancelled())
+                exchange.cancel(true);
+        });
+        return result;
     }
 
-    private List<ProfilePropertyWrapper> fetchProperties(Object serviceResponseBody) throws BreakContinuationException {
-        Objects.requireNonNull(service);
+    /**
+     * @return Extracted values, null if body is not a valid JSON
+     */
+    private static Map<String, JsonElement> extractJsonPaths(HttpResponse<byte[]> response, Collection<JsonPath> paths) {
+        try {
+            return StreamingJsonExtractor.extract(BoundedBodyHandler.reader(response), paths);
+        } catch (IOException | RuntimeException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Service's body is only needed as a whole for {@code response.*} placeholders, if none of them are used (by
+     * service itself or properties services' requests), only JSON paths to unique ID and properties are read.
+     * @return JSON paths to extract from service's response, null if the whole body is needed
+     */
+    private static Collection<JsonPath> getStreamedJsonPaths(Configuration.ServiceConfiguration service) {
+        if (service.isDebugEnabled() || service.isPlaceholderReferenced("response"))
+            return null;
+        var paths = new ArrayList<JsonPath>(2);
+        if (service.getUuidJsonPath() != null)
+            paths.add(service.getUuidJsonPath());
+        if (service.getPropertiesJsonPath() != null)
+            paths.add(service.getPropertiesJsonPath());
+        return paths;
+    }
+
+    /**
+     * Properties services' responses are only used for properties
+     * @return JSON path to properties to extract from service's response, null if the whole body is needed
+     */
+    private static Collection<JsonPath> getPropertiesJsonPaths(Configuration.ServiceConfiguration propertyService) {
+        if (propertyService.isDebugEnabled() || propertyService.getPropertiesJsonPath() == null)
+            return null;
+        return List.of(propertyService.getPropertiesJsonPath());
+    }
+
+    /**
+     * Same values as {@link Utils#extractJsonPaths(String, JsonElement)} would give, but only for a single path
+     * @return null if path does not lead to a value
+     */
+    private static ObjectHolder<Object> resolveJsonPlaceholder(JsonElement element, String path) {
+        JsonElement value;
+        try {
+            value = Utils.getJsonValue(element, path);
+        } catch (RuntimeException ex) {
+            return null;
+        }
+        if (value == null || value.isJsonObject() || value.isJsonArray())
+            return null;
+        return new ObjectHolder<>(value.isJsonPrimitive() ? value.getAsString() : value.toString());
+    }
+
+    /**
+     * @param responseBody Parsed JSON, or values extracted while streaming
+     */
+    private static JsonElement getJsonValue(Object responseBody, JsonPath path) {
+        if (path == null)
+            return null;
+        if (responseBody instanceof JsonElement element)
+            return path.get(element);
+        if (responseBody instanceof Map<?, ?> extracted)
+            return (JsonElement) extracted.get(path.getPath());
+        return null;
+    }
+
+    @FunctionalInterface
+    private interface BreakableSupplier<T> {
+        T get() throws BreakContinuationException;
+    }
+
+    /**
+     * Run code which can break the continuation inside a completion stage, the exception is wrapped in
+     * {@link CompletionException} and can be retrieved with {@link #unwrap(Throwable)}.
+     */
+    private static <T> T breakable(BreakableSupplier<T> supplier) {
+        try {
+            return supplier.get();
+        } catch (BreakContinuationException ex) {
+            throw new CompletionException(ex);
+        }
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        if (ex instanceof CompletionException && ex.getCause() != null)
+            return ex.getCause();
+        return ex;
+    }
 
-        List<ProfilePropertyWrapper> properties = null;
+    private List<String> getPropertiesServices() {
         var propertiesServices = new ArrayList<String>();
         if (service.canRetrieveProperties())
             propertiesServices.add(null);
         if (service.getRequestServicesForProperties() != null)
             propertiesServices.addAll(service.getRequestServicesForProperties());
+        return propertiesServices;
+    }
 
-        String prefix = null;
-        long fetchTook = -1;
-        for (var propertyServiceName : propertiesServices) {
+    /**
+     * Start requesting properties services (that do not use any placeholders from service's response) while
+     * service's request is still in flight.
+     */
+    private void startEarlyPropertiesFetch() {
+        cancelEarlyPropertiesFetch();
+        if (!service.isConcurrentPropertiesFetch() || !(applyProperties || requireProperties)
+                || service.getRequestServicesForProperties() == null)
+            return;
+        for (var propertyServiceName : service.getRequestServicesForProperties()) {
+            var propertyService = config.getService(propertyServiceName);
+            if (propertyService == null || !propertyService.isIndependentFromResponse())
+                continue;
+            var prefix = getPrefix(propertyServiceName + "#properties");
+            var request = buildRequest(propertyService, prefix);
+            // Rate limits and time-outs will be handled in fetchProperties()
+            if (request == null || !propertyService.canSendRequest())
+                continue;
+            if (sendDebugMessages)
+                logger.logInfo(prefix, "[DEBUG] Requesting properties early, service's response is not needed.");
+            earlyPropertiesRequests.put(propertyServiceName, sendRequestAsync(propertyService, request, new ObjectHolder<>(null),
+                    getPropertiesJsonPaths(propertyService)));
+        }
+    }
+
+    private void cancelEarlyPropertiesFetch() {
+        // Cancelling aborts the exchange, rate limit is kept as the request was already sent
+        for (var request : earlyPropertiesRequests.values())
+            request.cancel(true);
+        earlyPropertiesRequests.clear();
+    }
+
+    private List<ProfilePropertyWrapper> parseProperties(Object responseBody, JsonPath path, String prefix) {
+        if (path == null) {
+            if (sendErrorMessages)
+                logger.logError(prefix, "JSON path to properties is not defined!", null);
+            return null;
+        }
+        try {
+            var propertiesJsonElement = getJsonValue(responseBody, path);
+            if (propertiesJsonElement.isJsonArray()) {
+                return propertiesJsonElement.getAsJsonArray()
+                        .asList()
+                        .stream()
+                        .map(x -> Utils.DEFAULT_GSON.fromJson(
+                                x.getAsJsonObject(),
+                                ProfilePropertyWrapper.class
+                        ))
+                        .toList();
+            } else if (propertiesJsonElement.isJsonObject()) {
+                return List.of(Utils.DEFAULT_GSON.fromJson(
+                        propertiesJsonElement.getAsJsonObject(),
+                        ProfilePropertyWrapper.class
+                ));
+            } else {
+                if (sendErrorMessages)
+                    logger.logError(prefix, "Invalid JSON", null);
+            }
+        } catch (Exception ex) {
+            if (sendErrorMessages)
+                logger.logError(prefix, "Failed to get profile's properties! (Invalid properties?)", sendDebugMessages ? ex : null);
+        }
+        return null;
+    }
+
+    private List<ProfilePropertyWrapper> parsePropertiesResponse(ResponseData result, Configuration.ServiceConfiguration propertyService, String prefix) {
+        if (result.getException() != null) {
+            if (sendErrorMessages)
+                logger.logError(prefix, "Connection error (%s), failed to fetch properties from the service!",
+                        null, result.getException().getClass().getName());
+            if (sendDebugMessages)
+                logger.logError(result.getException().getMessage(), result.getException());
+            return null;
+        }
+        Object responseBody;
+        try {
+            responseBody = result.isStreamed()
+                    ? Objects.requireNonNull(result.getExtractedJsonPaths(), "Response is not a valid JSON")
+                    : JsonParser.parseString(result.getBody());
+        } catch (Exception ex) {
+            if (sendErrorMessages)
+                logger.logError(prefix, "Failed to parse JSON from properties service!", ex);
+            return null;
+        }
+        return parseProperties(responseBody, propertyService.getPropertiesJsonPath(), prefix);
+    }
+
+    private CompletableFuture<List<ProfilePropertyWrapper>> fetchProperties(Object serviceResponseBody) throws BreakContinuationException {
+        Objects.requireNonNull(service);
+
+        var propertiesServices = getPropertiesServices();
+        if (service.isConcurrentPropertiesFetch())
+            return fetchPropertiesConcurrently(propertiesServices, serviceResponseBody);
+        return fetchPropertiesSequentially(propertiesServices, 0, serviceResponseBody);
+    }
+
+    private CompletableFuture<List<ProfilePropertyWrapper>> fetchPropertiesSequentially(
+            List<String> propertiesServices, int from, Object serviceResponseBody) throws BreakContinuationException {
+        for (int i = from; i < propertiesServices.size(); i++) {
+            var propertyServiceName = propertiesServices.get(i);
             var propertyService = config.getService(propertyServiceName);
-            Object responseBody;
             if (propertyServiceName == null) {
                 if (serviceResponseBody == null)
                     continue;
-                prefix = servicePrefix;
-                responseBody = serviceResponseBody;
+                var responseBody = serviceResponseBody;
                 serviceResponseBody = null; // In case somehow getRequestServiceForProperties() has a null inside
-            } else {
-                prefix = getPrefix(propertyServiceName + "#properties");
-                if (!propertyService.canSendRequest()) {
-                    if (sendMessages)
-                        logger.logWarning(prefix, "Service got rate-limited!", null);
-                    if (!disconnectCheckFallback(propertyService.getRateLimitedDisconnectMessage(),
-                            FallbackUsage.ON_SUB_SERVICE_RATE_LIMITED))
-                        break;
+                if (!(responseBody instanceof String)) {
+                    var properties = parseProperties(responseBody, service.getPropertiesJsonPath(), servicePrefix);
+                    if (properties != null) {
+                        logPropertiesResult(properties, servicePrefix, -1);
+                        return CompletableFuture.completedFuture(properties);
+                    }
                 }
+                continue;
+            }
 
-                var request = buildRequest(propertyService, prefix);
-                if (request == null) {
-                    if (sendErrorMessages)
-                        logger.logError(prefix,
-                                "Not enough time-out for sending this request! reached timeout %sms, min timeout %sms",
-                                null, totalExecutionTime, config.getMinTimeout());
-                    if (!disconnectCheckFallback(propertyService.getTimeoutDisconnectMessage(),
-                            FallbackUsage.ON_SUB_SERVICE_TIMEOUT))
-                        break;
-                }
-                var took = new ObjectHolder<Long>(null);
-                var result = sendRequest(request, took);
-                fetchTook = took.get();
+            var prefix = getPrefix(propertyServiceName + "#properties");
+            if (!propertyService.canSendRequest()) {
+                if (sendMessages)
+                    logger.logWarning(prefix, "Service got rate-limited!", null);
+                if (!disconnectCheckFallback(propertyService.getRateLimitedDisconnectMessage(),
+                        FallbackUsage.ON_SUB_SERVICE_RATE_LIMITED))
+                    break;
+                continue;
+            }
+
+            var request = buildRequest(propertyService, prefix);
+            if (request == null) {
+                propertyService.releaseRequest(); // Nothing is sent
+                if (sendErrorMessages)
+                    logger.logError(prefix,
+                            "Not enough time-out for sending this request! reached timeout %sms, min timeout %sms",
+                            null, totalExecutionTime, config.getMinTimeout());
+                if (!disconnectCheckFallback(propertyService.getTimeoutDisconnectMessage(),
+                        FallbackUsage.ON_SUB_SERVICE_TIMEOUT))
+                    break;
+                continue;
+            }
+
+            var index = i;
+            var took = new ObjectHolder<Long>(null);
+            return sendRequestAsync(propertyService, request, took, getPropertiesJsonPaths(propertyService)).thenCompose(result -> breakable(() -> {
+                if (cancelled)
+                    throw new BreakContinuationException("Request was cancelled");
+                long fetchTook = took.get();
 
                 placeholders.put("sub-execution-time", fetchTook);
                 placeholders.put("sub-took-time", fetchTook);
@@ -480,62 +1417,102 @@ public class PlayerDataFetcher {
                 totalExecutionTime += fetchTook;
                 updateTotalExecutionTime();
 
-                if (result.getException() != null) {
+                if (result.getException() != null)
                     Utils.addExceptionPlaceholders(result.getException(), placeholders);
-                    if (sendErrorMessages)
-                        logger.logError(prefix, "Connection error (%s), failed to fetch properties from the service!",
-                                null, result.getException().getClass().getName());
-                    if (sendDebugMessages)
-                        logger.logError(result.getException().getMessage(), result.getException());
-                    continue;
+                var properties = parsePropertiesResponse(result, propertyService, prefix);
+                if (properties != null) {
+                    logPropertiesResult(properties, prefix, fetchTook);
+                    return CompletableFuture.completedFuture(properties);
                 }
+                return fetchPropertiesSequentially(propertiesServices, index + 1, null);
+            }));
+        }
 
-                try {
-                    responseBody = JsonParser.parseString(result.getResponse().body());
-                } catch (Exception ex) {
-                    if (sendErrorMessages)
-                        logger.logError(prefix, "Failed to parse JSON from properties service!",
-                                ex);
-                    continue;
-                }
+        logPropertiesResult(null, null, -1);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private CompletableFuture<List<ProfilePropertyWrapper>> fetchPropertiesConcurrently(List<String> propertiesServices, Object serviceResponseBody)
+            throws BreakContinuationException {
+        // Service's own response is already here, no need to race it
+        if (propertiesServices.remove(null) && serviceResponseBody != null && !(serviceResponseBody instanceof String)) {
+            var properties = parseProperties(serviceResponseBody, service.getPropertiesJsonPath(), servicePrefix);
+            if (properties != null) {
+                logPropertiesResult(properties, servicePrefix, 0);
+                return CompletableFuture.completedFuture(properties);
             }
+        }
 
-            if (responseBody instanceof JsonElement element) {
-                String path = (propertyService == null ? service : propertyService).getJsonPathToProperties();
-                if (path != null) {
-                    try {
-                        var propertiesJsonElement = Utils.getJsonValue(element, path);
-                        if (propertiesJsonElement.isJsonArray()) {
-                            properties = propertiesJsonElement.getAsJsonArray()
-                                    .asList()
-                                    .stream()
-                                    .map(x -> Utils.DEFAULT_GSON.fromJson(
-                                            x.getAsJsonObject(),
-                                            ProfilePropertyWrapper.class
-                                    ))
-                                    .toList();
-                            break;
-                        } else if (propertiesJsonElement.isJsonObject()) {
-                            properties = List.of(Utils.DEFAULT_GSON.fromJson(
-                                    propertiesJsonElement.getAsJsonObject(),
-                                    ProfilePropertyWrapper.class
-                            ));
-                            break;
-                        } else {
-                            if (sendErrorMessages)
-                                logger.logError(prefix, "Invalid JSON", null);
-                        }
-                    } catch (Exception ex) {
-                        if (sendErrorMessages)
-                            logger.logError(prefix, "Failed to get profile's properties! (Invalid properties?)", sendDebugMessages ? ex : null);
-                    }
-                } else {
+        var start = System.nanoTime();
+        var requests = new ArrayList<CompletableFuture<List<ProfilePropertyWrapper>>>();
+        var sent = new ArrayList<CompletableFuture<ResponseData>>();
+        for (var propertyServiceName : propertiesServices) {
+            var propertyService = config.getService(propertyServiceName);
+            var prefix = getPrefix(propertyServiceName + "#properties");
+            var future = earlyPropertiesRequests.remove(propertyServiceName);
+            if (future == null) {
+                if (!propertyService.canSendRequest()) {
+                    if (sendMessages)
+                        logger.logWarning(prefix, "Service got rate-limited!", null);
+                    if (!disconnectCheckFallback(propertyService.getRateLimitedDisconnectMessage(),
+                            FallbackUsage.ON_SUB_SERVICE_RATE_LIMITED))
+                        break;
+                    continue;
+                }
+                var request = buildRequest(propertyService, prefix);
+                if (request == null) {
+                    propertyService.releaseRequest(); // Nothing is sent
                     if (sendErrorMessages)
-                        logger.logError(prefix, "JSON path to properties is not defined!", null);
+                        logger.logError(prefix,
+                                "Not enough time-out for sending this request! reached timeout %sms, min timeout %sms",
+                                null, totalExecutionTime, config.getMinTimeout());
+                    if (!disconnectCheckFallback(propertyService.getTimeoutDisconnectMessage(),
+                            FallbackUsage.ON_SUB_SERVICE_TIMEOUT))
+                        break;
+                    continue;
                 }
+                future = sendRequestAsync(propertyService, request, new ObjectHolder<>(null),
+                    getPropertiesJsonPaths(propertyService));
             }
+            sent.add(future);
+            requests.add(future.thenApply(result -> parsePropertiesResponse(result, propertyService, prefix)));
         }
+        // Early requests that are not going to be used anymore
+        cancelEarlyPropertiesFetch();
+
+        return firstNonNull(requests).thenApply(properties -> breakable(() -> {
+            // Requests that lost are aborted, their rate limit is kept as they were already sent
+            for (var request : sent)
+                request.cancel(true);
+            if (cancelled)
+                throw new BreakContinuationException("Request was cancelled");
+
+            var fetchTook = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            placeholders.put("sub-execution-time", fetchTook);
+            placeholders.put("sub-took-time", fetchTook);
+            if (sendDebugMessages)
+                logger.logInfo(servicePrefix, "[DEBUG] Took %sms to fetch properties from %s service(s) concurrently.", fetchTook, requests.size());
+            totalExecutionTime += fetchTook;
+            updateTotalExecutionTime();
 
+            logPropertiesResult(properties, servicePrefix, fetchTook);
+            return properties;
+        }));
+    }
+
+    private static <T> CompletableFuture<T> firstNonNull(List<CompletableFuture<T>> futures) {
+        var result = new CompletableFuture<T>();
+        CompletableFuture.allOf(futures.stream()
+                .map(future -> future.thenAccept(value -> {
+                    if (value != null)
+                        result.complete(value);
+                }))
+                .toArray(CompletableFuture[]::new)
+        ).whenComplete((ignored, ex) -> result.complete(null));
+        return result;
+    }
+
+    private void logPropertiesResult(List<ProfilePropertyWrapper> properties, String prefix, long fetchTook) {
         if (properties == null && sendErrorMessages)
             logger.logWarning(servicePrefix, "Failed to retrieve properties (even if fallbacks were used)", null);
         if (properties != null && sendMessages) {
@@ -545,14 +1522,14 @@ public class PlayerDataFetcher {
                 logger.logInfo(prefix, "Properties successfully fetched for %s (took %s/%sms)", username, fetchTook, config.getMaxTimeout());
             }
         }
-
-        return properties;
     }
 
-    public boolean fetchService() throws BreakContinuationException {
+    public CompletableFuture<Boolean> fetchService() {
         Objects.requireNonNull(service);
         var database = MultiPlatform.get().getDatabase();
         placeholders.clear();
+        serviceFailed = false;
+        serviceTook = -1;
 
         placeholders.put("username", username);
         placeholders.put("uuid", uniqueId.toString());
@@ -561,155 +1538,299 @@ public class PlayerDataFetcher {
         placeholders.put("max-timeout", config.getMaxTimeout());
         placeholders.put("min-timeout", config.getMinTimeout());
 
-        handleResponse(ServiceStateEvent.SERVICE_START);
-
+        CompletableFuture<Boolean> future;
         try {
-            HttpRequest request = buildRequest(service, servicePrefix);
-            if (request == null)
-                disconnect(service.getTimeoutDisconnectMessage());
+            handleResponse(ServiceStateEvent.SERVICE_START);
+
+            HttpRequest request = null;
+            if (!service.isLocalIndex()) {
+                request = buildRequest(service, servicePrefix);
+                if (request == null)
+                    disconnect(service.getTimeoutDisconnectMessage());
+            }
 
             handleResponse(ServiceStateEvent.PRE_REQUEST);
+            startEarlyPropertiesFetch();
 
             var took = new ObjectHolder<Long>(null);
-            var result = sendRequest(request, took);
-            if (result.getException() != null) {
-                Utils.addExceptionPlaceholders(result.getException(), placeholders);
-                if (sendErrorMessages)
-                    logger.logError(servicePrefix, "Connection error (%s), failed to fetch data from the service!",
-                            null, result.getException().getClass().getName());
-                if (sendDebugMessages)
-                    logger.logError(result.getException().getMessage(), result.getException());
-
-                if (result.getException() instanceof HttpConnectTimeoutException)
-                    return disconnectCheckFallback(service.getTimeoutDisconnectMessage(), FallbackUsage.ON_SERVICE_TIMEOUT);
-                // Might handle more exceptions in the future
-                return disconnectCheckFallback(service.getConnectionErrorDisconnectMessage(), FallbackUsage.ON_CONNECTION_ERROR);
+            if (service.isLocalIndex()) {
+                var result = lookupInIndex(took);
+                future = handleServiceResponse(result, took.get());
+            } else if (service.isBulkLookupEnabled()) {
+                future = lookupInBulk(request, took)
+                        .thenCompose(result -> breakable(() -> result == null
+                                ? CompletableFuture.completedFuture(disconnectCheckFallback(
+                                        service.getRateLimitedDisconnectMessage(), FallbackUsage.ON_SERVICE_RATE_LIMITED))
+                                : handleServiceResponse(result, took.get())));
+            } else {
+                future = sendRequestAsync(service, request, took, getStreamedJsonPaths(service))
+                        .thenCompose(result -> breakable(() -> handleServiceResponse(result, took.get())));
             }
-            var response = result.getResponse();
-
-            totalExecutionTime += took.get();
+        } catch (Exception ex) {
+            future = CompletableFuture.failedFuture(ex);
+        }
 
-            placeholders.put("http.url", response.uri().toString());
-            placeholders.put("http.status", response.statusCode());
-            placeholders.put("execution-time", took.get());
-            placeholders.put("took", took.get());
-            updateTotalExecutionTime();
+        return future.exceptionally(ex -> breakable(() -> {
+            // Service didn't get to respond (e.g. request couldn't be built or a handler broke before it was sent)
+            if (serviceTook < 0)
+                serviceFailed = true;
+            if (!(unwrap(ex) instanceof Exception exception))
+                throw new CompletionException(unwrap(ex));
+            if (exception instanceof BreakContinuationException breakEx)
+                throw breakEx;
+            serviceFailed = true;
+            Utils.addExceptionPlaceholders(exception, placeholders);
+            if (sendErrorMessages)
+                logger.logError(servicePrefix, "Unknown error, failed to fetch unique ID or properties from the service!", exception);
+            if (sendDebugMessages)
+                logger.logError(exception.getMessage(), exception);
+            return disconnectCheckFallback(service.getUnknownErrorDisconnectMessage(), FallbackUsage.ON_UNKNOWN_ERROR);
+        })).whenComplete((next, ex) -> {
+            cancelEarlyPropertiesFetch();
+            if (serviceTook >= 0 && !cancelled)
+                recordServiceStatistics();
+            reportToCircuitBreaker();
+        });
+    }
 
-            handleResponse(ServiceStateEvent.POST_REQUEST);
+    private void reportToCircuitBreaker() {
+        if (!circuitBreakerPermitted)
+            return;
+        circuitBreakerPermitted = false;
+        if (cancelled)
+            service.getCircuitBreaker().release();
+        else
+            service.getCircuitBreaker().record(config.getCircuitBreaker(), serviceFailed);
+    }
 
+    /**
+     * Look up player's profile together with other logins, if bulk request failed - request the service alone
+     * @return Service's response, null if service got rate-limited
+     */
+    private CompletableFuture<ResponseData> lookupInBulk(HttpRequest request, ObjectHolder<Long> timeTook) {
+        var start = System.nanoTime();
+        var lookup = service.getBulkLookupBatcher().lookup(username);
+        pendingRequests.add(lookup);
+        if (cancelled)
+            lookup.cancel(true);
+        return lookup.exceptionally(ex -> null).thenCompose(result -> {
+            pendingRequests.remove(lookup);
+            if (result != null) {
+                timeTook.set(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                return CompletableFuture.completedFuture(result);
+            }
             if (sendDebugMessages)
-                logger.logInfo(servicePrefix, "[DEBUG] Took %sms to fetch data.", took.get());
-
-            if (service.getExpectStatusCode() != null && response.statusCode() != service.getExpectStatusCode()) {
+                logger.logInfo(servicePrefix, "[DEBUG] Bulk lookup failed, requesting the service alone.");
+            if (cancelled)
+                return CompletableFuture.failedFuture(new BreakContinuationException("Request was cancelled"));
+            if (!service.canSendRequest()) {
                 if (sendErrorMessages)
-                    logger.logError(servicePrefix, "Returned wrong HTTP status code! Got %s, expected %s.",
-                            null, response.statusCode(), service.getExpectStatusCode());
-                var message = service.getBadStatusDisconnectMessage();
-                var customMessage = service.getCustomStatusCodeDisconnectMessages().get(String.valueOf(response.statusCode()));
-                if (customMessage != null)
-                    message = customMessage.toString();
-                return disconnectCheckFallback(message, FallbackUsage.ON_BAD_STATUS);
+                    logger.logWarning(servicePrefix, "Service got rate-limited!", null);
+                return CompletableFuture.completedFuture(null);
             }
+            return sendRequestAsync(service, request, timeTook, getStreamedJsonPaths(service));
+        });
+    }
 
-            for (var entry : response.headers().map().entrySet())
-                placeholders.put("http.header.str" + entry.getKey().toLowerCase(), String.join(",", entry.getValue()));
-            for (var entry : response.headers().map().entrySet())
-                placeholders.put("http.header.raw" + entry.getKey().toLowerCase(), entry.getValue());
+    /**
+     * Look up player in service's local username index, no request is sent
+     * @return Response of the index, connection error if index is not loaded
+     */
+    private ResponseData lookupInIndex(ObjectHolder<Long> timeTook) {
+        var start = System.nanoTime();
+        var index = service.getUsernameIndex();
+        try {
+            if (index == null)
+                return new ResponseData(null, new FileNotFoundException("Username index " + service.getIndexFile() + " is not loaded"), null, null);
+            var response = index.lookup(username);
+            if (sendDebugMessages)
+                logger.logInfo(servicePrefix, "[DEBUG] Player was%s found in the username index.", response.statusCode() == 200 ? "" : " not");
+            return new ResponseData(response, null, response.body(), null);
+        } finally {
+            timeTook.set(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    private CompletableFuture<Boolean> handleServiceResponse(ResponseData result, long took) throws BreakContinuationException {
+        if (cancelled)
+            throw new BreakContinuationException("Request was cancelled");
+        serviceTook = took;
+        if (result.getException() != null) {
+            serviceFailed = true;
+            Utils.addExceptionPlaceholders(result.getException(), placeholders);
+            if (sendErrorMessages)
+                logger.logError(servicePrefix, "Connection error (%s), failed to fetch data from the service!",
+                        null, result.getException().getClass().getName());
+            if (sendDebugMessages)
+                logger.logError(result.getException().getMessage(), result.getException());
+
+            if (result.getException() instanceof HttpConnectTimeoutException)
+                return CompletableFuture.completedFuture(
+                        disconnectCheckFallback(service.getTimeoutDisconnectMessage(), FallbackUsage.ON_SERVICE_TIMEOUT));
+            // Might handle more exceptions in the future
+            return CompletableFuture.completedFuture(
+                    disconnectCheckFallback(service.getConnectionErrorDisconnectMessage(), FallbackUsage.ON_CONNECTION_ERROR));
+        }
+        var response = result.getResponse();
+
+        totalExecutionTime += took;
+
+        placeholders.put("http.url", response.uri().toString());
+        placeholders.put("http.status", response.statusCode());
+        placeholders.put("execution-time", took);
+        placeholders.put("took", took);
+        updateTotalExecutionTime();
+
+        // Client errors (e.g. player not found) say nothing about service's health
+        serviceFailed = response.statusCode() >= 500 || response.statusCode() == 429;
 
-            Object responseBody;
+        handleResponse(ServiceStateEvent.POST_REQUEST);
+
+        if (sendDebugMessages)
+            logger.logInfo(servicePrefix, "[DEBUG] Took %sms to fetch data.", took);
+        if (service.getExpectStatusCode() != null && response.statusCode() != service.getExpectStatusCode()) {
+            if (sendErrorMessages)
+                logger.logError(servicePrefix, "Returned wrong HTTP status code! Got %s, expected %s.",
+                        null, response.statusCode(), service.getExpectStatusCode());
+            var message = service.getBadStatusDisconnectMessage();
+            var customMessage = service.getCustomStatusCodeDisconnectMessages().get(String.valueOf(response.statusCode()));
+            if (customMessage != null)
+                message = customMessage.toString();
+            return CompletableFuture.completedFuture(disconnectCheckFallback(message, FallbackUsage.ON_BAD_STATUS));
+        }
+
+        if (service.isPlaceholderReferenced("http.header.")) {
+            placeholders.putResolver("http.header.str", name -> {
+                var values = response.headers().allValues(name);
+                return values.isEmpty() ? null : new ObjectHolder<>(String.join(",", values));
+            });
+            placeholders.putResolver("http.header.raw", name -> {
+                var values = response.headers().allValues(name);
+                return values.isEmpty() ? null : new ObjectHolder<>(values);
+            });
+        }
+
+        Object responseBody;
+        if (result.isStreamed()) {
+            // No response.* placeholders are used, so only extracted values are kept
+            responseBody = result.getExtractedJsonPaths();
+            if (responseBody == null) {
+                if (sendErrorMessages)
+                    logger.logError(servicePrefix, "Body does not have valid JSON!", null);
+                return CompletableFuture.completedFuture(
+                        disconnectCheckFallback(service.getBadUniqueIdDisconnectMessage(), FallbackUsage.ON_BAD_UUID_PATH));
+            }
+        } else {
             try {
-                responseBody = JsonParser.parseString(response.body());
+                responseBody = JsonParser.parseString(result.getBody());
             } catch (Exception ex) {
-                responseBody = response.body();
+                responseBody = result.getBody();
                 if (sendDebugMessages)
                     logger.logInfo(servicePrefix, "[DEBUG] Body does not have valid JSON, parsing as text => %s",
                             responseBody.toString().replaceAll("\\R+", ""));
             }
 
             if (responseBody instanceof JsonElement element)
-                placeholders.putAll(Utils.extractJsonPaths("response.", element));
+                placeholders.putResolver("response.", path -> resolveJsonPlaceholder(element, path));
             else
                 placeholders.put("response", responseBody.toString());
+        }
 
-            UUID rewriteUniqueId = null;
-            if (service.canRetrieveUniqueId()) {
-                String fetchedUniqueId = null;
-                try {
-                    if (responseBody instanceof JsonElement element)
-                        fetchedUniqueId = Utils.getJsonValue(element, service.getJsonPathToUuid()).getAsString();
-                    else
-                        fetchedUniqueId = responseBody.toString();
-                } catch (Exception ex) {
-                    Utils.addExceptionPlaceholders(ex, placeholders);
-                    if (sendErrorMessages)
-                        logger.logError(servicePrefix, "Failed, invalid JSON path to unique ID - %s", null, service.getJsonPathToUuid());
-                    if (sendDebugMessages)
-                        logger.logError(ex.getMessage(), ex);
-                }
+        UUID rewriteUniqueId = null;
+        if (service.canRetrieveUniqueId()) {
+            String fetchedUniqueId = null;
+            try {
+                if (responseBody instanceof String text)
+                    fetchedUniqueId = text;
+                else
+                    fetchedUniqueId = getJsonValue(responseBody, service.getUuidJsonPath()).getAsString();
+            } catch (Exception ex) {
+                Utils.addExceptionPlaceholders(ex, placeholders);
+                if (sendErrorMessages)
+                    logger.logError(servicePrefix, "Failed, invalid JSON path to unique ID - %s", null, service.getJsonPathToUuid());
+                if (sendDebugMessages)
+                    logger.logError(ex.getMessage(), ex);
+            }
 
-                if (fetchedUniqueId == null)
-                    return disconnectCheckFallback(service.getBadUniqueIdDisconnectMessage(), FallbackUsage.ON_BAD_UUID_PATH);
+            if (fetchedUniqueId == null)
+                return CompletableFuture.completedFuture(
+                        disconnectCheckFallback(service.getBadUniqueIdDisconnectMessage(), FallbackUsage.ON_BAD_UUID_PATH));
 
-                try {
-                    rewriteUniqueId = Utils.toUniqueId(fetchedUniqueId);
+            try {
+                rewriteUniqueId = Utils.toUniqueId(fetchedUniqueId);
 
-                    placeholders.put("fetched-uuid", rewriteUniqueId.toString());
-                    placeholders.put("fetched-dashless-uuid", Utils.toDashlessUniqueId(rewriteUniqueId));
+                placeholders.put("fetched-uuid", rewriteUniqueId.toString());
+                placeholders.put("fetched-dashless-uuid", Utils.toDashlessUniqueId(rewriteUniqueId));
 
-                    handleResponse(ServiceStateEvent.FETCHED_UUID);
-                } catch (IllegalArgumentException ex) {
-                    Utils.addExceptionPlaceholders(ex, placeholders);
-                    if (sendErrorMessages)
-                        logger.logError(servicePrefix, "Failed to convert '%s' to UUID!", null, fetchedUniqueId.replaceAll("\\R+", ""));
-                    if (sendDebugMessages)
-                        logger.logError(ex.getMessage(), ex);
-                    return disconnectCheckFallback(service.getBadUniqueIdDisconnectMessage(), FallbackUsage.ON_INVALID_UUID);
-                }
+                handleResponse(ServiceStateEvent.FETCHED_UUID);
+            } catch (IllegalArgumentException ex) {
+                Utils.addExceptionPlaceholders(ex, placeholders);
+                if (sendErrorMessages)
+                    logger.logError(servicePrefix, "Failed to convert '%s' to UUID!", null, fetchedUniqueId.replaceAll("\\R+", ""));
+                if (sendDebugMessages)
+                    logger.logError(ex.getMessage(), ex);
+                return CompletableFuture.completedFuture(
+                        disconnectCheckFallback(service.getBadUniqueIdDisconnectMessage(), FallbackUsage.ON_INVALID_UUID));
             }
+        }
 
-            handleResponse(ServiceStateEvent.PRE_PROPERTIES_FETCH);
+        handleResponse(ServiceStateEvent.PRE_PROPERTIES_FETCH);
+
+        var fetchingProperties = applyProperties || requireProperties;
+        var finalRewriteUniqueId = rewriteUniqueId;
+        return (fetchingProperties ? fetchProperties(responseBody) : CompletableFuture.<List<ProfilePropertyWrapper>>completedFuture(null))
+                .thenApply(properties -> breakable(() -> {
+                    if (fetchingProperties) {
+                        if (properties != null)
+                            handleResponse(ServiceStateEvent.FETCHED_PROPERTIES);
+                        else if (requireProperties)
+                            return disconnectCheckFallback(service.getPropertiesFailedDisconnectMessage(), FallbackUsage.ON_BAD_PROPERTIES);
+                    }
+                    storePlayerData(finalRewriteUniqueId, properties, took);
+                    return false;
+                }));
+    }
 
-            List<ProfilePropertyWrapper> properties = null;
-            if (applyProperties || requireProperties) {
-                properties = fetchProperties(responseBody);
-                if (properties != null)
-                    handleResponse(ServiceStateEvent.FETCHED_PROPERTIES);
-                else if (requireProperties)
-                    return disconnectCheckFallback(service.getPropertiesFailedDisconnectMessage(), FallbackUsage.ON_BAD_PROPERTIES);
+    private void storePlayerData(UUID rewriteUniqueId, List<ProfilePropertyWrapper> properties, long took) throws BreakContinuationException {
+        var database = MultiPlatform.get().getDatabase();
+        fetchedPlayerData = new OnlinePlayerData(uniqueId, rewriteUniqueId, properties)
+                .updateTime(null, null)
+                .setTimeKeep(Math.max(-1, TimeUnit.MINUTES.toMillis(service.getCacheKeepTime())));
+
+        if (cacheDatabase) {
+            if (service.getAllowDatabaseCaching() && database.getConfiguration().isEnabled() && database.isDriverRunning()) {
+                var data = fetchedPlayerData;
+                storeInDatabase(() -> database.storeOnlinePlayerCache(data));
             }
+            if (service.getCacheInMemory())
+                cachedPlayerDataMap.put(uniqueId, fetchedPlayerData);
+        }
 
-            fetchedPlayerData = new OnlinePlayerData(uniqueId, rewriteUniqueId, properties)
-                    .updateTime(null, null)
-                    .setTimeKeep(Math.max(-1, TimeUnit.MINUTES.toMillis(service.getCacheKeepTime())));
-
-            if (cacheDatabase) {
-                if (service.getAllowDatabaseCaching() && database.getConfiguration().isEnabled() && database.isDriverRunning())
-                    database.storeOnlinePlayerCache(fetchedPlayerData);
-                if (service.getCacheInMemory())
-                    cachedPlayerDataMap.put(uniqueId, fetchedPlayerData);
-            }
+        var tookString = ", took %s/%sms".formatted(took, totalExecutionTime);
+        var withProperties = properties != null && !properties.isEmpty() ? " (with properties)" : "";
+        if (sendMessages) {
+            if (rewriteUniqueId != null)
+                logger.logInfo(servicePrefix, "Unique ID successfully fetched%s for %s => %s%s", withProperties, username, rewriteUniqueId, tookString);
+            else if (!withProperties.isEmpty())
+                logger.logInfo(servicePrefix, "Properties successfully fetched for %s%s", username, tookString);
+        }
 
-            var tookString = ", took %s/%sms".formatted(took, totalExecutionTime);
-            var withProperties = properties != null && !properties.isEmpty() ? " (with properties)" : "";
-            if (sendMessages) {
-                if (rewriteUniqueId != null)
-                    logger.logInfo(servicePrefix, "Unique ID successfully fetched%s for %s => %s%s", withProperties, username, rewriteUniqueId, tookString);
-                else if (!withProperties.isEmpty())
-                    logger.logInfo(servicePrefix, "Properties successfully fetched for %s%s", username, tookString);
-            }
+        if (cacheFetchedData)
+            storeFetchedPlayerData(uniqueId, fetchedPlayerData);
+        disconnect = false;
+        handleResponse(ServiceStateEvent.PLAYER_DATA_FETCHED);
+    }
 
-            if (cacheFetchedData)
-                fetchedPlayerDataMap.put(uniqueId, fetchedPlayerData);
-            disconnect = false;
-            handleResponse(ServiceStateEvent.PLAYER_DATA_FETCHED);
-            return false;
-        } catch (Exception ex) {
-            Utils.addExceptionPlaceholders(ex, placeholders);
+    /**
+     * Login doesn't wait for the database, responses are handled on the network executor, which must never block
+     * (it's HTTP client's executor too)
+     */
+    private void storeInDatabase(Runnable store) {
+        try {
+            MultiPlatform.get().getDatabaseExecutor().execute(store);
+        } catch (RejectedExecutionException ex) {
             if (sendErrorMessages)
-                logger.logError(servicePrefix, "Unknown error, failed to fetch unique ID or properties from the service!", ex);
-            if (sendDebugMessages)
-                logger.logError(ex.getMessage(), ex);
-            return disconnectCheckFallback(service.getUnknownErrorDisconnectMessage(), FallbackUsage.ON_UNKNOWN_ERROR);
+                logger.logWarning(servicePrefix, "Database executor is busy, player's data won't be stored!", null);
         }
     }
 
@@ -720,17 +1841,13 @@ public class PlayerDataFetcher {
                 disconnectMessage = config.getServiceDefaults().getDefaultDisconnectMessage();
             if (disconnectMessage != null) {
                 for (var custom : service.getCustomPlaceholders().entrySet()) {
-                    if (custom.getValue() != null)
-                        placeholders.put("custom." + custom.getKey(), Utils.replacePlaceholders(custom.getValue().toString(), placeholders));
+                    if (custom.getValue() != null && service.isPlaceholderReferenced("custom." + custom.getKey()))
+                        placeholders.put("custom." + custom.getKey(),
+                                service.getMessageTemplate(custom.getValue().toString()).render(placeholders));
                 }
-                message = new Message(disconnectMessage, false).replacePlaceholders(placeholders);
+                message = new Message(service.getMessageTemplate(disconnectMessage).render(placeholders), false);
             } else
                 message = new Message(Utils.GENERIC_DISCONNECT_MESSAGE_ID, true);
-        } else {
-            if (isFallback() && lastUsedService == null && config.getFallbackServiceRememberTime() != 0) {
-                lastUsedService = service.getName();
-                lastUsedServiceAt = System.currentTimeMillis();
-            }
         }
         return new BiObjectHolder<>(fetchedPlayerData, message);
     }
@@ -0,0 +1,109 @@
+package me.itstautvydas.uuidswapper.service;
+
+import me.itstautvydas.uuidswapper.multiplatform.MultiPlatform;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded queue of requests waiting for service's rate limit to free up a request instead of being rejected right
+ * away. Waiting requests are let through in the order they came in.
+ */
+public class RateLimitQueue {
+    private final RateLimitable limiter;
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private boolean drainScheduled;
+
+    private long waited;
+    private long served;
+    private long timedOut;
+    private long rejected;
+    private long totalWaitTime;
+
+    public RateLimitQueue(RateLimitable limiter) {
+        this.limiter = limiter;
+    }
+
+    /**
+     * @param queueSize Max amount of waiting requests, 0 to not wait at all
+     * @param maxWait Max time in milliseconds to wait for
+     * @return true once request can be sent (it's already counted towards the rate limit), false if service is still
+     * rate-limited
+     */
+    public CompletableFuture<Boolean> acquire(int queueSize, long maxWait) {
+        Waiter waiter;
+        synchronized (this) {
+            // Requests in the queue go first
+            if (waiters.isEmpty() && limiter.canSendRequest())
+                return CompletableFuture.completedFuture(true);
+            if (queueSize < 1 || maxWait <= 0 || waiters.size() >= queueSize
+                    || limiter.getTimeToWaitForNextRequest() > maxWait) {
+                rejected++;
+                return CompletableFuture.completedFuture(false);
+            }
+            waiter = new Waiter(new CompletableFuture<>(), System.nanoTime());
+            waiters.addLast(waiter);
+            waited++;
+            scheduleDrain();
+        }
+        MultiPlatform.get().getGeneralExecutor().delayed(maxWait, TimeUnit.MILLISECONDS).execute(() -> expire(waiter));
+        return waiter.future;
+    }
+
+    private void drain() {
+        var ready = new ArrayList<Waiter>();
+        synchronized (this) {
+            drainScheduled = false;
+            while (!waiters.isEmpty()) {
+                var waiter = waiters.peekFirst();
+                if (!waiter.future.isDone()) {
+                    if (!limiter.canSendRequest())
+                        break;
+                    served++;
+                    totalWaitTime += TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - waiter.queuedAt);
+                    ready.add(waiter);
+                }
+                waiters.removeFirst();
+            }
+            if (!waiters.isEmpty())
+                scheduleDrain();
+        }
+        for (var waiter : ready) {
+            if (!waiter.future.complete(true))
+                limiter.releaseRequest(); // Cancelled while waiting
+        }
+    }
+
+    private void expire(Waiter waiter) {
+        synchronized (this) {
+            if (!waiters.remove(waiter))
+                return;
+            timedOut++;
+        }
+        waiter.future.complete(false);
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled)
+            return;
+        drainScheduled = true;
+        var delay = Math.max(1, limiter.getTimeToWaitForNextRequest());
+        MultiPlatform.get().getGeneralExecutor().delayed(delay, TimeUnit.MILLISECONDS).execute(this::drain);
+    }
+
+    public synchronized int getWaiting() {
+        return waiters.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "%s waiting, %s waited (%s served in %.0fms on average, %s timed out), %s rejected, %s requests left".formatted(
+                waiters.size(), waited, served, served == 0 ? 0.0 : (double) totalWaitTime / served, timedOut, rejected,
+                limiter.getRemainingRequests() == Integer.MAX_VALUE ? "unlimited" : limiter.getRemainingRequests());
+    }
+
+    private record Waiter(CompletableFuture<Boolean> future, long queuedAt) {}
+}
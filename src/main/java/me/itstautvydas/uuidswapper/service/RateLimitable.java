@@ -1,88 +1,67 @@
 package me.itstautvydas.uuidswapper.service;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReentrantLock;
 
 public abstract class RateLimitable {
-    private final transient Deque<Long> hits = new ArrayDeque<>();
-    private final transient ReentrantLock lock = new ReentrantLock();
-
-    private final transient long windowNanos = TimeUnit.MINUTES.toNanos(1);
+    private final transient SlidingWindowCounter perSecond = new SlidingWindowCounter(1, TimeUnit.SECONDS);
+    private final transient SlidingWindowCounter perMinute = new SlidingWindowCounter(1, TimeUnit.MINUTES);
 
     protected abstract Integer getMaxRequestsPerMinute();
 
+    protected abstract Integer getMaxRequestsPerSecond();
+
     public boolean isRateLimited() {
-        Integer max = getMaxRequestsPerMinute();
-        if (max == null || max < 1)
-            return false;
-        var now = System.nanoTime();
-        var floor = now - windowNanos;
-        lock.lock();
-        try {
-            evictOld(floor);
-            return hits.size() >= max;
-        } finally {
-            lock.unlock();
-        }
+        return getRemainingRequests() == 0;
     }
 
     @SuppressWarnings("BooleanMethodIsAlwaysInverted")
     public boolean canSendRequest() {
-        var max = getMaxRequestsPerMinute();
-        if (max == null || max < 1)
-            return true;
-        var now = System.nanoTime();
-        var floor = now - windowNanos;
-        lock.lock();
-        try {
-            evictOld(floor);
-            if (hits.size() < max) {
-                hits.addLast(now);
-                return true;
-            }
+        var perMinuteLimit = getMaxRequestsPerMinute();
+        var perSecondLimit = getMaxRequestsPerSecond();
+        var limitedPerMinute = isLimited(perMinuteLimit);
+        if (limitedPerMinute && !perMinute.tryAcquire(perMinuteLimit))
+            return false;
+        if (isLimited(perSecondLimit) && !perSecond.tryAcquire(perSecondLimit)) {
+            if (limitedPerMinute)
+                perMinute.release();
             return false;
-        } finally {
-            lock.unlock();
         }
+        return true;
+    }
+
+    /**
+     * Gives back request which was allowed by {@link #canSendRequest()}, but wasn't sent
+     */
+    public void releaseRequest() {
+        if (isLimited(getMaxRequestsPerMinute()))
+            perMinute.release();
+        if (isLimited(getMaxRequestsPerSecond()))
+            perSecond.release();
     }
 
     public int getRemainingRequests() {
-        var max = getMaxRequestsPerMinute();
-        if (max == null || max < 1)
-            return Integer.MAX_VALUE;
-        var now = System.nanoTime();
-        var floor = now - windowNanos;
-        lock.lock();
-        try {
-            evictOld(floor);
-            return Math.max(0, max - hits.size());
-        } finally {
-            lock.unlock();
-        }
+        var remaining = Integer.MAX_VALUE;
+        var perMinuteLimit = getMaxRequestsPerMinute();
+        if (isLimited(perMinuteLimit))
+            remaining = perMinute.getRemaining(perMinuteLimit);
+        var perSecondLimit = getMaxRequestsPerSecond();
+        if (isLimited(perSecondLimit))
+            remaining = Math.min(remaining, perSecond.getRemaining(perSecondLimit));
+        return remaining;
     }
 
     public long getTimeToWaitForNextRequest() {
-        var max = getMaxRequestsPerMinute();
-        if (max == null || max < 1)
-            return 0L;
-        var now = System.nanoTime();
-        var floor = now - windowNanos;
-        lock.lock();
-        try {
-            evictOld(floor);
-            if (hits.size() < max) return 0L;
-            var oldest = hits.peekFirst();
-            var waitNanos = (oldest + windowNanos) - now;
-            return Math.max(0L, TimeUnit.NANOSECONDS.toMillis(waitNanos));
-        } finally {
-            lock.unlock();
-        }
+        var time = 0L;
+        var perMinuteLimit = getMaxRequestsPerMinute();
+        if (isLimited(perMinuteLimit))
+            time = perMinute.getTimeToWait(perMinuteLimit);
+        var perSecondLimit = getMaxRequestsPerSecond();
+        if (isLimited(perSecondLimit))
+            time = Math.max(time, perSecond.getTimeToWait(perSecondLimit));
+        return time;
     }
 
-    private void evictOld(long floor) {
-        while (!hits.isEmpty() && hits.peekFirst() < floor)
-            hits.removeFirst();
+    private static boolean isLimited(Integer max) {
+        return max != null && max > 0;
     }
 }
@@ -0,0 +1,83 @@
+package me.itstautvydas.uuidswapper.service;
+
+import lombok.Getter;
+
+/**
+ * Exponentially weighted moving averages of service's response time and success rate, used to order services by
+ * expected time until a successful response.
+ */
+public class ServiceStatistics {
+    // Keeps unreliable services from getting an infinite score
+    private static final double MIN_SUCCESS_RATE = 0.01;
+
+    @Getter
+    private final String serviceName;
+    private double averageLatency;
+    private double successRate;
+    private long samples;
+
+    public ServiceStatistics(String serviceName) {
+        this(serviceName, 0, 1, 0);
+    }
+
+    public ServiceStatistics(String serviceName, double averageLatency, double successRate, long samples) {
+        this.serviceName = serviceName;
+        this.averageLatency = averageLatency;
+        this.successRate = successRate;
+        this.samples = samples;
+    }
+
+    /**
+     * @param smoothing Weight (0-1) of this request in the averages
+     * @return Amount of recorded requests
+     */
+    public synchronized long record(long latency, boolean failed, double smoothing) {
+        if (samples == 0) {
+            averageLatency = latency;
+            successRate = failed ? 0 : 1;
+        } else {
+            averageLatency += smoothing * (latency - averageLatency);
+            successRate += smoothing * ((failed ? 0 : 1) - successRate);
+        }
+        return ++samples;
+    }
+
+    /**
+     * Use stored statistics if nothing was recorded yet
+     */
+    public synchronized void load(ServiceStatistics stored) {
+        if (samples != 0 || stored.getSamples() == 0)
+            return;
+        averageLatency = stored.getAverageLatency();
+        successRate = stored.getSuccessRate();
+        samples = stored.getSamples();
+    }
+
+    /**
+     * @return Expected time (milliseconds) until a successful response if failed requests were retried
+     */
+    public synchronized double getExpectedTimeToSuccess() {
+        return averageLatency / Math.max(successRate, MIN_SUCCESS_RATE);
+    }
+
+    public synchronized double getAverageLatency() {
+        return averageLatency;
+    }
+
+    public synchronized double getSuccessRate() {
+        return successRate;
+    }
+
+    public synchronized long getSamples() {
+        return samples;
+    }
+
+    public synchronized ServiceStatistics copy() {
+        return new ServiceStatistics(serviceName, averageLatency, successRate, samples);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "%.0fms, %.1f%% successful (%s requests)".formatted(averageLatency, successRate * 100, samples);
+    }
+}
@@ -0,0 +1,106 @@
+package me.itstautvydas.uuidswapper.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free sliding window counter. Only counts of the current and previous window are kept, requests of the previous
+ * window are weighted by how much of it still overlaps with the sliding window.
+ */
+public class SlidingWindowCounter {
+    // Counts are packed into 16 bits each
+    public static final int MAX_LIMIT = 0xFFFF;
+    // Keeps window index small enough for 32 bits
+    private static final long ORIGIN = System.nanoTime();
+
+    private final long windowNanos;
+    // Window index (32 bits) | previous window's count (16 bits) | current window's count (16 bits)
+    private final AtomicLong state = new AtomicLong();
+
+    public SlidingWindowCounter(long window, TimeUnit unit) {
+        this.windowNanos = unit.toNanos(window);
+    }
+
+    /**
+     * @return true if request was counted, false if limit was reached
+     */
+    public boolean tryAcquire(int limit) {
+        limit = Math.min(limit, MAX_LIMIT);
+        while (true) {
+            var current = state.get();
+            var now = System.nanoTime() - ORIGIN;
+            var window = advance(current, now);
+            if (window.estimate(windowNanos) >= limit)
+                return false;
+            if (state.compareAndSet(current, pack(window.index, window.previous, window.current + 1)))
+                return true;
+        }
+    }
+
+    /**
+     * Gives back request which was acquired, but wasn't sent
+     */
+    public void release() {
+        while (true) {
+            var current = state.get();
+            var window = advance(current, System.nanoTime() - ORIGIN);
+            // Already moved to another window, request will expire soon anyway
+            if (window.index != current >>> 32 || window.current == 0)
+                return;
+            if (state.compareAndSet(current, pack(window.index, window.previous, window.current - 1)))
+                return;
+        }
+    }
+
+    public int getRemaining(int limit) {
+        limit = Math.min(limit, MAX_LIMIT);
+        var window = advance(state.get(), System.nanoTime() - ORIGIN);
+        return (int) Math.max(0, limit - (long) Math.floor(window.estimate(windowNanos)));
+    }
+
+    /**
+     * @return Time in milliseconds until {@link #tryAcquire(int)} would succeed
+     */
+    public long getTimeToWait(int limit) {
+        limit = Math.min(limit, MAX_LIMIT);
+        var window = advance(state.get(), System.nanoTime() - ORIGIN);
+        if (window.estimate(windowNanos) < limit)
+            return 0L;
+        long waitNanos;
+        if (window.current < limit) {
+            // Wait until enough of the previous window slides out
+            var fraction = 1 - (double) (limit - window.current) / window.previous;
+            waitNanos = (long) (fraction * windowNanos) - window.elapsed;
+        } else {
+            // Current window becomes the previous one, then it has to slide out enough
+            var fraction = 1 - (double) limit / window.current;
+            waitNanos = windowNanos - window.elapsed + (long) (fraction * windowNanos);
+        }
+        return Math.max(0L, TimeUnit.NANOSECONDS.toMillis(waitNanos) + 1);
+    }
+
+    private Window advance(long state, long now) {
+        long index = state >>> 32;
+        int previous = (int) (state >>> 16) & 0xFFFF;
+        int current = (int) state & 0xFFFF;
+        long nowIndex = now / windowNanos;
+        if (nowIndex > index) {
+            previous = nowIndex == index + 1 ? current : 0;
+            current = 0;
+            index = nowIndex;
+        }
+        // Clock of another thread was slightly ahead, treat it as the same window
+        var elapsed = Math.min(Math.max(0, now - index * windowNanos), windowNanos);
+        return new Window(index, previous, current, elapsed);
+    }
+
+    private static long pack(long index, int previous, int current) {
+        return index << 32 | (long) previous << 16 | current;
+    }
+
+    private record Window(long index, int previous, int current, long elapsed) {
+        double estimate(long windowNanos) {
+            return previous * (1 - (double) elapsed / windowNanos) + current;
+        }
+    }
+}
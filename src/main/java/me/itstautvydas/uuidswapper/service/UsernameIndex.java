@@ -0,0 +1,242 @@
+package me.itstautvydas.uuidswapper.service;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import me.itstautvydas.uuidswapper.Utils;
+
+import javax.net.ssl.SSLSession;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Username to unique ID index stored in a file sorted by username, the file is memory-mapped and looked up with a
+ * binary search, so players can be found without sending any requests.
+ * <p>
+ * File starts with a header (magic, version, players count), followed by fixed size records: lowercase username
+ * (ASCII, zero-padded to 16 bytes) and unique ID's most and least significant bits.
+ */
+public class UsernameIndex {
+    private static final int MAGIC = 0x55555849; // UUXI
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int NAME_SIZE = 16;
+    private static final int RECORD_SIZE = NAME_SIZE + 16;
+    private static final HttpHeaders JSON_HEADERS = HttpHeaders.of(
+            Map.of("Content-Type", List.of("application/json")), (name, value) -> true);
+
+    private final Path file;
+    private final ByteBuffer records;
+    private final int size;
+
+    private UsernameIndex(Path file, ByteBuffer records, int size) {
+        this.file = file;
+        this.records = records;
+        this.size = size;
+    }
+
+    public static UsernameIndex open(Path file) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            var length = channel.size();
+            if (length < HEADER_SIZE)
+                throw new IOException("Index file is too small: " + file);
+            // Mapping stays valid after the channel is closed
+            var mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION)
+                throw new IOException("Not a username index file (or unsupported version): " + file);
+            var size = mapped.getLong(8);
+            // Whole file has to fit into a single mapping
+            if (size < 0 || size > (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE || length != HEADER_SIZE + size * RECORD_SIZE)
+                throw new IOException("Index file is corrupted: " + file);
+            return new UsernameIndex(file, mapped.slice(HEADER_SIZE, (int) (size * RECORD_SIZE)), (int) size);
+        }
+    }
+
+    /**
+     * @return Player's unique ID, null if username is not in the index
+     */
+    public UUID find(String username) {
+        var name = encode(username);
+        if (name == null)
+            return null;
+        var high = ByteBuffer.wrap(name).getLong(0);
+        var low = ByteBuffer.wrap(name).getLong(8);
+        int from = 0;
+        int to = size - 1;
+        while (from <= to) {
+            int middle = (from + to) >>> 1;
+            int offset = middle * RECORD_SIZE;
+            // Padded names compare the same way as two unsigned big-endian numbers
+            int compared = Long.compareUnsigned(records.getLong(offset), high);
+            if (compared == 0)
+                compared = Long.compareUnsigned(records.getLong(offset + 8), low);
+            if (compared < 0)
+                from = middle + 1;
+            else if (compared > 0)
+                to = middle - 1;
+            else
+                return new UUID(records.getLong(offset + NAME_SIZE), records.getLong(offset + NAME_SIZE + 8));
+        }
+        return null;
+    }
+
+    /**
+     * @return Response the service would get from an endpoint like Mojang's: player's profile ({@code id} and
+     * {@code name}), or 404 if player was not found
+     */
+    public HttpResponse<String> lookup(String username) {
+        var uniqueId = find(username);
+        if (uniqueId == null)
+            return new IndexResponse(file.toUri(), 404, HttpHeaders.of(Map.of(), (name, value) -> true), "");
+        var profile = new JsonObject();
+        profile.addProperty("id", Utils.toDashlessUniqueId(uniqueId));
+        profile.addProperty("name", username);
+        return new IndexResponse(file.toUri(), 200, JSON_HEADERS, profile.toString());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Build index from a players dump, each line is either a JSON object ({@code name} or {@code username} and
+     * {@code id} or {@code uuid}) or {@code username,uuid}. Output file is replaced only once the whole index is
+     * written.
+     */
+    public static BuildResult build(Path input, Path output) throws IOException {
+        var players = new HashMap<String, UUID>();
+        long skipped = 0;
+        try (var lines = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty())
+                    continue;
+                var player = parseLine(line);
+                if (player == null || encode(player.getKey()) == null)
+                    skipped++;
+                else
+                    players.put(player.getKey().toLowerCase(Locale.ROOT), player.getValue());
+            }
+        }
+        var usernames = new ArrayList<>(players.keySet());
+        // Same order as padded names' bytes, usernames are ASCII only
+        Collections.sort(usernames);
+
+        var directory = output.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        var temporary = Files.createTempFile(directory, output.getFileName().toString(), ".tmp");
+        try {
+            try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(usernames.size());
+                for (var username : usernames) {
+                    var uniqueId = players.get(username);
+                    out.write(encode(username));
+                    out.writeLong(uniqueId.getMostSignificantBits());
+                    out.writeLong(uniqueId.getLeastSignificantBits());
+                }
+            }
+            try {
+                Files.move(temporary, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temporary, output, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return new BuildResult(usernames.size(), skipped);
+    }
+
+    /**
+     * @return Username and unique ID, null if line is invalid (e.g. CSV header)
+     */
+    private static Map.Entry<String, UUID> parseLine(String line) {
+        try {
+            String username;
+            String uniqueId;
+            if (line.startsWith("{")) {
+                var json = JsonParser.parseString(line).getAsJsonObject();
+                var name = json.has("name") ? json.get("name") : json.get("username");
+                var id = json.has("id") ? json.get("id") : json.get("uuid");
+                if (name == null || id == null)
+                    return null;
+                username = name.getAsString();
+                uniqueId = id.getAsString();
+            } else {
+                var columns = line.split(",");
+                if (columns.length < 2)
+                    return null;
+                username = columns[0].trim().replace("\"", "");
+                uniqueId = columns[1].trim().replace("\"", "");
+            }
+            return Map.entry(username, Utils.toUniqueId(uniqueId));
+        } catch (RuntimeException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * @return Lowercase username padded with zeros, null if it can't be a player's username
+     */
+    private static byte[] encode(String username) {
+        if (username.isEmpty() || username.length() > NAME_SIZE)
+            return null;
+        var name = new byte[NAME_SIZE];
+        for (int i = 0; i < username.length(); i++) {
+            var character = username.charAt(i);
+            if (character <= ' ' || character > '~')
+                return null;
+            name[i] = (byte) Character.toLowerCase(character);
+        }
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return "file: %s, players: %s".formatted(file, size);
+    }
+
+    public record BuildResult(int players, long skipped) {}
+
+    private record IndexResponse(URI uri, int statusCode, HttpHeaders headers, String body) implements HttpResponse<String> {
+        @Override
+        public HttpRequest request() {
+            return null; // Nothing was sent
+        }
+
+        @Override
+        public Optional<HttpResponse<String>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_1_1;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package me.itstautvydas.uuidswapper.helper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExpiringMapTest {
+    private static final long KEEP_TIME = 60000;
+
+    @Test
+    public void testGet() {
+        var map = new ExpiringMap<String>();
+        var now = System.currentTimeMillis();
+        map.put("notch", now);
+        assertEquals(now, map.get("notch", KEEP_TIME));
+        assertNull(map.get("jeb_", KEEP_TIME));
+    }
+
+    @Test
+    public void testExpiredKeys() {
+        var map = new ExpiringMap<String>();
+        var now = System.currentTimeMillis();
+        map.put("old", now - KEEP_TIME);
+        map.put("older", now - KEEP_TIME * 2);
+        map.put("new", now);
+        assertNull(map.get("old", KEEP_TIME));
+        assertNull(map.get("older", KEEP_TIME));
+        assertEquals(now, map.get("new", KEEP_TIME));
+    }
+
+    @Test
+    public void testExpireRemovesInAddedOrder() {
+        var map = new ExpiringMap<String>();
+        var now = System.currentTimeMillis();
+        map.put("first", now - KEEP_TIME * 2);
+        map.put("second", now - KEEP_TIME);
+        map.put("third", now);
+        map.expire(KEEP_TIME);
+        assertEquals(Map.of("third", now), map.asMap());
+    }
+
+    @Test
+    public void testKeyAddedAgainIsKept() {
+        var map = new ExpiringMap<String>();
+        var now = System.currentTimeMillis();
+        map.put("notch", now - KEEP_TIME);
+        map.put("notch", now);
+        // Old entry of the key expires, but it must not remove the new one
+        map.expire(KEEP_TIME);
+        assertEquals(now, map.get("notch", KEEP_TIME));
+        assertEquals(1, map.asMap().size());
+    }
+
+    @Test
+    public void testDifferentKeepTime() {
+        var map = new ExpiringMap<String>();
+        var now = System.currentTimeMillis();
+        map.put("notch", now - 1000);
+        assertEquals(now - 1000, map.get("notch", KEEP_TIME));
+        assertNull(map.get("notch", 1000));
+        assertTrue(map.asMap().isEmpty());
+    }
+
+    @Test
+    public void testClear() {
+        var map = new ExpiringMap<String>();
+        map.put("notch", System.currentTimeMillis());
+        map.clear();
+        assertNull(map.get("notch", KEEP_TIME));
+        assertTrue(map.asMap().isEmpty());
+    }
+
+    @Test
+    public void testViewIsReadOnly() {
+        var map = new ExpiringMap<String>();
+        assertThrows(UnsupportedOperationException.class, () -> map.asMap().put("notch", 0L));
+    }
+}
@@ -0,0 +1,72 @@
+package me.itstautvydas.uuidswapper.helper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PlaceholderTemplateTest {
+    private static final Map<String, Object> PLACEHOLDERS = Map.of(
+            "username", "Notch",
+            "uuid", "069a79f4-44e9-4726-a5be-fca90e38aaf5",
+            "error.class-name", "IOException",
+            "response.properties[0].value", "dGV4dHVyZXM=");
+
+    private static String render(String template) {
+        return PlaceholderTemplate.compile(template).render(PLACEHOLDERS);
+    }
+
+    @Test
+    public void testRender() {
+        assertEquals("Hello Notch (069a79f4-44e9-4726-a5be-fca90e38aaf5)!", render("Hello {username} ({uuid})!"));
+        assertEquals("NotchNotch", render("{username}{username}"));
+        assertEquals("IOException: dGV4dHVyZXM=", render("{error.class-name}: {response.properties[0].value}"));
+    }
+
+    @Test
+    public void testUnknownPlaceholdersAreKept() {
+        assertEquals("Notch {unknown}", render("{username} {unknown}"));
+    }
+
+    @Test
+    public void testNullValue() {
+        var placeholders = new HashMap<String, Object>();
+        placeholders.put("username", null);
+        assertEquals("null", PlaceholderTemplate.compile("{username}").render(placeholders));
+    }
+
+    @Test
+    public void testUnmatchedBraceBeforePlaceholder() {
+        assertEquals("{ Notch", render("{ {username}"));
+        assertEquals("{Notch}", render("{{username}}"));
+        assertEquals("a { b Notch", render("a { b {username}"));
+        assertEquals("{username", render("{username"));
+        assertEquals("Notch}", render("{username}}"));
+        assertEquals("{}", render("{}"));
+    }
+
+    @Test
+    public void testJsonIsLiteral() {
+        assertEquals("{\"name\": \"Notch\", \"list\": [{}]}", render("{\"name\": \"{username}\", \"list\": [{}]}"));
+        assertEquals(List.of("username"), PlaceholderTemplate.compile("{\"name\": \"{username}\"}").getNames());
+    }
+
+    @Test
+    public void testNames() {
+        var template = PlaceholderTemplate.compile("{username} { {uuid} {username} {not a placeholder}");
+        assertEquals(List.of("username", "uuid", "username"), template.getNames());
+        assertTrue(template.hasPlaceholders());
+        assertFalse(PlaceholderTemplate.compile("no placeholders {").hasPlaceholders());
+    }
+
+    @Test
+    public void testWithoutPlaceholders() {
+        var template = PlaceholderTemplate.compile("plain text");
+        assertSame(template.getTemplate(), template.render(PLACEHOLDERS));
+        assertEquals("{username}", PlaceholderTemplate.compile("{username}").render(null));
+        assertNull(PlaceholderTemplate.compile(null));
+    }
+}
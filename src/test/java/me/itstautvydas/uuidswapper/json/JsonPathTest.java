@@ -0,0 +1,111 @@
+package me.itstautvydas.uuidswapper.json;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonPathTest {
+    private static final JsonElement JSON = JsonParser.parseString("""
+            {
+              "id": "069a79f444e94726a5befca90e38aaf5",
+              "name": "Notch",
+              "count": 3,
+              "legacy": false,
+              "nothing": null,
+              "properties": [
+                {"name": "textures", "value": "dGV4dHVyZXM="}
+              ],
+              "data": {"player": {"meta": {"cached_at": 1700000000}, "skins": [[1, 2], [3, 4]]}}
+            }""");
+
+    /**
+     * Walker JsonPath has replaced ({@code Utils#getJsonValue} before paths were compiled)
+     */
+    private static JsonElement walk(JsonElement element, String path) {
+        if (element == null || element.isJsonNull())
+            return null;
+        if (path == null || path.isEmpty())
+            return element;
+        var parts = path.split("\\.");
+        for (var part : parts) {
+            if (part.matches(".+\\[\\d+]")) { // Array indexes - key[0]
+                var key = part.substring(0, part.indexOf('['));
+                int index = Integer.parseInt(part.substring(part.indexOf('[') + 1, part.indexOf(']')));
+                element = element.getAsJsonObject().get(key);
+                if (element == null || !element.isJsonArray())
+                    return null;
+                element = element.getAsJsonArray().get(index);
+            } else if (part.matches("\\[\\d+]")) { // Direct array indexes - [0]
+                int index = Integer.parseInt(part.substring(1, part.indexOf(']')));
+                if (!element.isJsonArray())
+                    return null;
+                element = element.getAsJsonArray().get(index);
+            } else { // Normal objects
+                element = element.getAsJsonObject().get(part);
+            }
+        }
+        return element;
+    }
+
+    private static void assertSameAsWalker(String path) {
+        assertEquals(walk(JSON, path), JsonPath.compile(path).get(JSON), path);
+    }
+
+    @Test
+    public void testDottedPaths() {
+        assertSameAsWalker("id");
+        assertSameAsWalker("data.player.meta.cached_at");
+        assertEquals(1700000000L, JsonPath.compile("data.player.meta.cached_at").get(JSON).getAsLong());
+    }
+
+    @Test
+    public void testArrayIndexes() {
+        assertSameAsWalker("properties[0]");
+        assertSameAsWalker("properties[0].value");
+        assertSameAsWalker("data.player.skins[1]");
+        assertSameAsWalker("data.player.skins[1].[0]");
+        assertEquals(3, JsonPath.compile("data.player.skins[1].[0]").get(JSON).getAsInt());
+        var array = JsonParser.parseString("[[\"a\"], [\"b\"]]");
+        assertEquals(walk(array, "[1].[0]"), JsonPath.compile("[1].[0]").get(array));
+    }
+
+    @Test
+    public void testPrimitivesAndObjects() {
+        for (var path : new String[] {"name", "count", "legacy", "nothing", "properties", "data.player.meta", ""})
+            assertSameAsWalker(path);
+        assertTrue(JsonPath.compile("legacy").get(JSON).isJsonPrimitive());
+        assertTrue(JsonPath.compile("data.player").get(JSON).isJsonObject());
+        assertSame(JSON, JsonPath.compile("").get(JSON));
+        assertEquals(JsonNull.INSTANCE, JsonPath.compile("nothing").get(JSON));
+    }
+
+    @Test
+    public void testMissingSegments() {
+        assertSameAsWalker("missing");
+        assertSameAsWalker("data.missing");
+        assertSameAsWalker("missing[0]");
+        assertSameAsWalker("name[0]");
+        assertSameAsWalker("data.[0]");
+        assertNull(JsonPath.compile("data.missing.deeper").get(JSON));
+        assertNull(JsonPath.compile("name[0]").get(JSON));
+    }
+
+    @Test
+    public void testReturnsNullWhereWalkerThrew() {
+        // Walker expected objects and existing indexes, these threw instead of returning no value
+        for (var path : new String[] {"name.first", "properties[5]", "properties.[1]", "data.player.skins[0].[2]", "count.value", "data.missing.deeper"}) {
+            assertThrows(RuntimeException.class, () -> walk(JSON, path), path);
+            assertNull(JsonPath.compile(path).get(JSON), path);
+        }
+    }
+
+    @Test
+    public void testNullElement() {
+        assertNull(JsonPath.compile("id").get(null));
+        assertNull(JsonPath.compile("").get(JsonNull.INSTANCE));
+        assertNull(JsonPath.compile(null));
+    }
+}
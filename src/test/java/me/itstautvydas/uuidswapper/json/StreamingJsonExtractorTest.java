@@ -0,0 +1,75 @@
+package me.itstautvydas.uuidswapper.json;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StreamingJsonExtractorTest {
+    private static final String PROFILE = """
+            {
+              "id": "069a79f444e94726a5befca90e38aaf5",
+              "name": "Notch",
+              "properties": [
+                {"name": "textures", "value": "dGV4dHVyZXM=", "signature": "c2lnbmF0dXJl"}
+              ],
+              "legacy": false,
+              "data": {"player": {"meta": {"cached_at": 1700000000}, "skins": [[1, 2], [3, 4]]}}
+            }""";
+
+    private static Map<String, JsonElement> extract(String json, String... paths) throws IOException {
+        return StreamingJsonExtractor.extract(new StringReader(json),
+                Arrays.stream(paths).map(JsonPath::compile).toList());
+    }
+
+    @Test
+    public void testExtractsSameValuesAsTree() throws IOException {
+        var paths = new String[] {"id", "name", "properties[0].value", "properties[0]", "legacy",
+                "data.player.meta.cached_at", "data.player.skins[1].[0]", "data.player"};
+        var extracted = extract(PROFILE, paths);
+        var tree = JsonParser.parseString(PROFILE);
+        for (var path : paths)
+            assertEquals(JsonPath.compile(path).get(tree), extracted.get(path), path);
+    }
+
+    @Test
+    public void testMissingPathsAreNotIncluded() throws IOException {
+        var extracted = extract(PROFILE, "id", "missing", "properties[5].value", "name.first", "data.player.skins[0].[9]");
+        assertEquals(Map.of("id", JsonParser.parseString("\"069a79f444e94726a5befca90e38aaf5\"")), extracted);
+    }
+
+    @Test
+    public void testRootPath() throws IOException {
+        assertEquals(Map.of("", JsonParser.parseString(PROFILE)), extract(PROFILE, ""));
+    }
+
+    @Test
+    public void testPathsSharingPrefix() throws IOException {
+        var extracted = extract(PROFILE, "properties[0].name", "properties[0].signature", "properties");
+        assertEquals("textures", extracted.get("properties[0].name").getAsString());
+        assertEquals("c2lnbmF0dXJl", extracted.get("properties[0].signature").getAsString());
+        assertTrue(extracted.get("properties").isJsonArray());
+    }
+
+    @Test
+    public void testLenientJson() throws IOException {
+        var extracted = extract("{id: 'abc', 'name': Notch}", "id", "name");
+        assertEquals("abc", extracted.get("id").getAsString());
+        assertEquals("Notch", extracted.get("name").getAsString());
+    }
+
+    @Test
+    public void testMalformedJson() {
+        // Values needed as a tree are parsed by JsonParser, which wraps the IOException
+        var exception = assertThrows(Exception.class, () -> extract("{\"id\": \"abc\", \"name\": [", "name"));
+        assertTrue(exception instanceof IOException || exception instanceof JsonParseException, exception.toString());
+        assertThrows(IOException.class, () -> extract("{\"id\": \"abc\", \"name\": [", "id"));
+    }
+}
@@ -0,0 +1,282 @@
+package me.itstautvydas.uuidswapper.service;
+
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpServer;
+import me.itstautvydas.uuidswapper.config.Configuration;
+import me.itstautvydas.uuidswapper.data.ResponseData;
+import me.itstautvydas.uuidswapper.multiplatform.MultiPlatform;
+import me.itstautvydas.uuidswapper.multiplatform.PluginExecutor;
+import me.itstautvydas.uuidswapper.multiplatform.PluginTaskWrapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkLookupBatcherTest {
+    private static final Gson GSON = new GsonBuilder()
+            .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_DASHES)
+            .create();
+    private static final Map<String, String> PROFILES = Map.of(
+            "notch", "069a79f444e94726a5befca90e38aaf5",
+            "jeb_", "853c80ef3c3749fdaa49938b674adae6",
+            "dinnerbone", "61699b2ed3274a019f1e0ea8c3f06bc6"
+    );
+
+    private static HttpServer server;
+    private static PluginExecutor networkExecutor;
+    private static final Queue<RecordedRequest> requests = new ConcurrentLinkedQueue<>();
+
+    private record RecordedRequest(String method, String path, Map<String, List<String>> headers, JsonArray body) {}
+
+    @BeforeAll
+    public static void start() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/profiles", exchange -> {
+            var usernames = JsonParser.parseString(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8))
+                    .getAsJsonArray();
+            requests.add(new RecordedRequest(exchange.getRequestMethod(), exchange.getRequestURI().getPath(),
+                    Map.copyOf(exchange.getRequestHeaders()), usernames));
+            var profiles = new JsonArray();
+            for (var username : usernames) {
+                var id = PROFILES.get(username.getAsString());
+                if (id == null)
+                    continue;
+                var profile = new JsonObject();
+                profile.addProperty("id", id);
+                // Service returns usernames in their real case
+                profile.addProperty("name", username.getAsString().toUpperCase(Locale.ROOT));
+                profiles.add(profile);
+            }
+            var bytes = profiles.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (var body = exchange.getResponseBody()) {
+                body.write(bytes);
+            }
+        });
+        server.createContext("/failing", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+        });
+        server.start();
+
+        networkExecutor = new PluginExecutor("Network",
+                GSON.fromJson("{}", Configuration.ExecutorsConfiguration.ExecutorConfiguration.class));
+        var platform = new TestPlatform();
+        setField(MultiPlatform.class, null, "CURRENT", platform);
+        setField(MultiPlatform.class, platform, "networkExecutor", networkExecutor);
+        setField(MultiPlatform.class, platform, "httpClientExecutor", networkExecutor);
+    }
+
+    @AfterAll
+    public static void stop() throws Exception {
+        setField(MultiPlatform.class, null, "CURRENT", null);
+        networkExecutor.shutdown(1000);
+        server.stop(0);
+    }
+
+    @BeforeEach
+    public void clear() {
+        requests.clear();
+    }
+
+    private static void setField(Class<?> type, Object instance, String name, Object value) throws Exception {
+        var field = type.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(instance, value);
+    }
+
+    private static Configuration.ServiceConfiguration service(String name, int maxSize, long window) {
+        var service = GSON.fromJson("""
+                        {"name": "%s", "bulk-endpoint": "http://127.0.0.1:%s/profiles/{service-name}",
+                         "bulk-max-size": %s, "bulk-window": %s, "timeout": 5000, "http-version": "HTTP_1_1",
+                         "custom-placeholders": {"key": "secret-{service-name}"},
+                         "headers": {"X-Api-Key": "{custom.key}", "X-Bulk-Size": "{bulk-size}", "X-Usernames": "{usernames}"}}"""
+                        .formatted(name, server.getAddress().getPort(), maxSize, window),
+                Configuration.ServiceConfiguration.class);
+        service.setDefaults(new Configuration.DefaultServiceConfiguration());
+        service.postProcessed();
+        return service;
+    }
+
+    private static List<CompletableFuture<ResponseData>> lookupConcurrently(BulkLookupBatcher batcher, String... usernames) throws Exception {
+        var pool = Executors.newFixedThreadPool(usernames.length);
+        try {
+            var ready = new CountDownLatch(1);
+            var futures = new ArrayList<CompletableFuture<CompletableFuture<ResponseData>>>();
+            for (var username : usernames)
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        ready.await();
+                    } catch (InterruptedException ex) {
+                        throw new RuntimeException(ex);
+                    }
+                    return batcher.lookup(username);
+                }, pool));
+            ready.countDown();
+            var lookups = new ArrayList<CompletableFuture<ResponseData>>();
+            for (var future : futures)
+                lookups.add(future.get(5, TimeUnit.SECONDS));
+            return lookups;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static String uniqueId(CompletableFuture<ResponseData> lookup) throws Exception {
+        var data = lookup.get(5, TimeUnit.SECONDS);
+        assertNotNull(data);
+        assertEquals(200, data.getResponse().statusCode());
+        return JsonParser.parseString(data.getBody()).getAsJsonObject().get("id").getAsString();
+    }
+
+    private static void assertNotFound(CompletableFuture<ResponseData> lookup) throws Exception {
+        var data = lookup.get(5, TimeUnit.SECONDS);
+        assertNotNull(data);
+        assertEquals(404, data.getResponse().statusCode());
+        assertEquals("", data.getBody());
+    }
+
+    @Test
+    public void testConcurrentLookupsAreSentInOneRequest() throws Exception {
+        var service = service("Window", 10, 300);
+        var lookups = lookupConcurrently(service.getBulkLookupBatcher(), "Notch", "jeb_", "Dinnerbone", "Missing");
+
+        assertEquals(PROFILES.get("notch"), uniqueId(lookups.get(0)));
+        assertEquals(PROFILES.get("jeb_"), uniqueId(lookups.get(1)));
+        assertEquals(PROFILES.get("dinnerbone"), uniqueId(lookups.get(2)));
+        assertNotFound(lookups.get(3));
+
+        assertEquals(1, requests.size());
+        var request = requests.peek();
+        assertEquals("POST", request.method());
+        assertEquals(4, request.body().size());
+        var usernames = new ArrayList<String>();
+        request.body().forEach(username -> usernames.add(username.getAsString()));
+        assertTrue(usernames.containsAll(List.of("notch", "jeb_", "dinnerbone", "missing")));
+    }
+
+    @Test
+    public void testHeadersAndEndpointAreRendered() throws Exception {
+        var service = service("Headers", 10, 50);
+        var batcher = service.getBulkLookupBatcher();
+        var first = batcher.lookup("Notch");
+        var second = batcher.lookup("jeb_");
+        assertNotNull(first.get(5, TimeUnit.SECONDS));
+        assertNotNull(second.get(5, TimeUnit.SECONDS));
+
+        var request = requests.peek();
+        assertNotNull(request);
+        assertEquals("/profiles/Headers", request.path());
+        Function<String, String> header = name -> request.headers().entrySet().stream()
+                .filter(entry -> entry.getKey().equalsIgnoreCase(name))
+                .map(entry -> entry.getValue().get(0))
+                .findFirst()
+                .orElse(null);
+        assertEquals("secret-Headers", header.apply("X-Api-Key"));
+        assertEquals("2", header.apply("X-Bulk-Size"));
+        assertEquals("notch,jeb_", header.apply("X-Usernames"));
+        assertEquals("application/json", header.apply("Content-Type"));
+    }
+
+    @Test
+    public void testFullBatchIsSentWithoutWaiting() throws Exception {
+        var service = service("Full", 2, 60000);
+        var batcher = service.getBulkLookupBatcher();
+        var first = batcher.lookup("Notch");
+        // Same player twice is a single username in the batch
+        var second = batcher.lookup("NOTCH");
+        var third = batcher.lookup("jeb_");
+        var fourth = batcher.lookup("Dinnerbone");
+        var fifth = batcher.lookup("Missing");
+
+        assertEquals(PROFILES.get("notch"), uniqueId(first));
+        assertEquals(PROFILES.get("notch"), uniqueId(second));
+        assertEquals(PROFILES.get("jeb_"), uniqueId(third));
+        assertEquals(PROFILES.get("dinnerbone"), uniqueId(fourth));
+        assertNotFound(fifth);
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    public void testRateLimitedBatchIsMissing() throws Exception {
+        var service = GSON.fromJson("""
+                        {"name": "Limited", "bulk-endpoint": "http://127.0.0.1:%s/profiles", "bulk-window": 10,
+                         "max-requests-per-minute": 1}""".formatted(server.getAddress().getPort()),
+                Configuration.ServiceConfiguration.class);
+        service.setDefaults(new Configuration.DefaultServiceConfiguration());
+        service.postProcessed();
+        var batcher = service.getBulkLookupBatcher();
+
+        assertEquals(PROFILES.get("notch"), uniqueId(batcher.lookup("Notch")));
+        assertNull(batcher.lookup("jeb_").get(5, TimeUnit.SECONDS));
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    public void testFailedBatchIsMissing() throws Exception {
+        var service = GSON.fromJson("""
+                        {"name": "Failing", "bulk-endpoint": "http://127.0.0.1:%s/failing", "bulk-window": 10,
+                         "http-version": "HTTP_1_1"}""".formatted(server.getAddress().getPort()),
+                Configuration.ServiceConfiguration.class);
+        service.setDefaults(new Configuration.DefaultServiceConfiguration());
+        service.postProcessed();
+
+        // Only a failed bulk request makes players request the service alone
+        assertNull(service.getBulkLookupBatcher().lookup("Notch").get(5, TimeUnit.SECONDS));
+    }
+
+    private static class TestPlatform extends MultiPlatform<Object, Object, Object, Object> {
+        @Override
+        public void sendMessage(Object sender, Function<Configuration.CommandMessagesConfiguration, String> message, Map<String, Object> placeholders) {}
+
+        @Override
+        public void registerCommand(String commandName) {}
+
+        @Override
+        public boolean isServerOnlineMode() {
+            return false;
+        }
+
+        @Override
+        public PluginTaskWrapper scheduleTask(Runnable run, Long repeatInSeconds, long delayInSeconds) {
+            return null;
+        }
+
+        @Override
+        public PluginTaskWrapper scheduleTaskAsync(Runnable run) {
+            return null;
+        }
+
+        @Override
+        public void logInfo(String prefix, String message, Object... args) {}
+
+        @Override
+        public void logWarning(String prefix, String message, Throwable exception, Object... args) {}
+
+        @Override
+        public void logError(String prefix, String message, Throwable exception, Object... args) {}
+    }
+}
@@ -0,0 +1,125 @@
+package me.itstautvydas.uuidswapper.service;
+
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.GsonBuilder;
+import me.itstautvydas.uuidswapper.config.Configuration;
+import me.itstautvydas.uuidswapper.enums.CircuitBreakerState;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CircuitBreakerTest {
+    private static Configuration.CircuitBreakerConfiguration configuration(long openDuration) {
+        return new GsonBuilder()
+                .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_DASHES)
+                .create()
+                .fromJson("""
+                        {"window-size": 4, "minimum-calls": 2, "failure-rate-threshold": 50,
+                         "open-duration": %s, "half-open-probes": 2}""".formatted(openDuration),
+                        Configuration.CircuitBreakerConfiguration.class);
+    }
+
+    private static void record(CircuitBreaker breaker, Configuration.CircuitBreakerConfiguration configuration, boolean... outcomes) {
+        for (var failed : outcomes) {
+            assertTrue(breaker.tryAcquirePermission(configuration));
+            breaker.record(configuration, failed);
+        }
+    }
+
+    @Test
+    public void testStaysClosedBelowThreshold() {
+        var configuration = configuration(60000);
+        var breaker = new CircuitBreaker();
+        record(breaker, configuration, false, false, false, true);
+        assertEquals(CircuitBreakerState.CLOSED, breaker.getState());
+        assertEquals(25, breaker.getFailureRate());
+    }
+
+    @Test
+    public void testMinimumCalls() {
+        var configuration = configuration(60000);
+        var breaker = new CircuitBreaker();
+        record(breaker, configuration, true);
+        assertEquals(CircuitBreakerState.CLOSED, breaker.getState());
+        record(breaker, configuration, true);
+        assertEquals(CircuitBreakerState.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission(configuration));
+    }
+
+    @Test
+    public void testWindowSlides() {
+        var configuration = configuration(60000);
+        var breaker = new CircuitBreaker();
+        record(breaker, configuration, false, false, true, false);
+        assertEquals(25, breaker.getFailureRate());
+        record(breaker, configuration, false, false, false);
+        // Failure fell out of the window
+        assertEquals(0, breaker.getFailureRate());
+        record(breaker, configuration, true);
+        assertEquals(25, breaker.getFailureRate());
+        assertEquals(CircuitBreakerState.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testHalfOpenProbesClose() {
+        var configuration = configuration(0);
+        var breaker = new CircuitBreaker();
+        record(breaker, configuration, true, true);
+        assertEquals(CircuitBreakerState.OPEN, breaker.getState());
+
+        assertTrue(breaker.tryAcquirePermission(configuration));
+        assertEquals(CircuitBreakerState.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission(configuration));
+        // Only as many probes as needed are let through
+        assertFalse(breaker.tryAcquirePermission(configuration));
+        breaker.record(configuration, false);
+        assertEquals(CircuitBreakerState.HALF_OPEN, breaker.getState());
+        breaker.record(configuration, false);
+        assertEquals(CircuitBreakerState.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getFailureRate());
+    }
+
+    @Test
+    public void testFailedProbeOpens() {
+        var configuration = configuration(0);
+        var breaker = new CircuitBreaker();
+        record(breaker, configuration, true, true);
+        assertTrue(breaker.tryAcquirePermission(configuration));
+        breaker.record(configuration, true);
+        assertEquals(CircuitBreakerState.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void testReleasedProbeFreesPermission() {
+        var configuration = configuration(0);
+        var breaker = new CircuitBreaker();
+        record(breaker, configuration, true, true);
+        assertTrue(breaker.tryAcquirePermission(configuration));
+        assertTrue(breaker.tryAcquirePermission(configuration));
+        assertFalse(breaker.tryAcquirePermission(configuration));
+        breaker.release();
+        assertTrue(breaker.tryAcquirePermission(configuration));
+        assertEquals(CircuitBreakerState.HALF_OPEN, breaker.getState());
+    }
+
+    @Test
+    public void testStaysOpenForOpenDuration() {
+        var configuration = configuration(60000);
+        var breaker = new CircuitBreaker();
+        record(breaker, configuration, true, true);
+        assertFalse(breaker.tryAcquirePermission(configuration));
+        assertEquals(CircuitBreakerState.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void testDisabled() {
+        var configuration = new GsonBuilder()
+                .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_DASHES)
+                .create()
+                .fromJson("{\"enabled\": false, \"minimum-calls\": 1}", Configuration.CircuitBreakerConfiguration.class);
+        var breaker = new CircuitBreaker();
+        record(breaker, configuration, true, true, true);
+        assertEquals(CircuitBreakerState.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getFailureRate());
+    }
+}
@@ -0,0 +1,163 @@
+package me.itstautvydas.uuidswapper.service;
+
+import org.junit.jupiter.api.Test;
+
+import javax.net.ssl.SSLSession;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpResponseCacheTest {
+    private static final HttpRequest REQUEST = request("https://api.mojang.com/users/profiles/minecraft/Notch");
+    private static final String BODY = "{\"id\":\"069a79f444e94726a5befca90e38aaf5\",\"name\":\"Notch\"}";
+
+    private static HttpRequest request(String uri, String... headers) {
+        var builder = HttpRequest.newBuilder(URI.create(uri)).GET();
+        if (headers.length != 0)
+            builder.headers(headers);
+        return builder.build();
+    }
+
+    /**
+     * @param headers Name and value pairs
+     */
+    private static HttpResponse<String> response(int statusCode, String... headers) {
+        var map = new HashMap<String, List<String>>();
+        for (int i = 0; i < headers.length; i += 2)
+            map.computeIfAbsent(headers[i], name -> new ArrayList<>()).add(headers[i + 1]);
+        return new TestResponse(statusCode, HttpHeaders.of(map, (name, value) -> true));
+    }
+
+    @Test
+    public void testFreshResponse() {
+        var cache = new HttpResponseCache();
+        cache.store(REQUEST, response(200, "Cache-Control", "public, max-age=60"), BODY, 10);
+        var entry = cache.get(REQUEST);
+        assertNotNull(entry);
+        assertTrue(entry.isFresh());
+        assertFalse(entry.canRevalidate());
+        var cached = entry.toResponse(REQUEST);
+        assertEquals(200, cached.statusCode());
+        assertEquals(BODY, cached.body());
+        assertEquals(REQUEST.uri(), cached.uri());
+        assertNull(cache.get(request("https://api.mojang.com/users/profiles/minecraft/jeb_")));
+    }
+
+    @Test
+    public void testNotCached() {
+        var cache = new HttpResponseCache();
+        cache.store(REQUEST, response(404, "Cache-Control", "max-age=60"), BODY, 10);
+        cache.store(REQUEST, response(200, "Cache-Control", "no-store, max-age=60"), BODY, 10);
+        cache.store(REQUEST, response(200, "Cache-Control", "max-age=60", "Vary", "*"), BODY, 10);
+        // Neither fresh nor revalidatable
+        cache.store(REQUEST, response(200), BODY, 10);
+        assertNull(cache.get(REQUEST));
+    }
+
+    @Test
+    public void testAgeAndExpires() {
+        var cache = new HttpResponseCache();
+        cache.store(REQUEST, response(200, "Cache-Control", "max-age=60", "Age", "60", "ETag", "\"a\""), BODY, 10);
+        assertFalse(cache.get(REQUEST).isFresh());
+
+        cache.store(REQUEST, response(200,
+                "Date", "Tue, 15 Nov 1994 08:12:31 GMT",
+                "Expires", "Tue, 15 Nov 1994 08:13:31 GMT"), BODY, 10);
+        assertTrue(cache.get(REQUEST).isFresh());
+
+        cache.store(REQUEST, response(200, "Expires", "0", "ETag", "\"a\""), BODY, 10);
+        assertFalse(cache.get(REQUEST).isFresh());
+    }
+
+    @Test
+    public void testRevalidation() {
+        var cache = new HttpResponseCache();
+        cache.store(REQUEST, response(200,
+                "Cache-Control", "no-cache",
+                "ETag", "\"abc\"",
+                "Last-Modified", "Tue, 15 Nov 1994 08:12:31 GMT"), BODY, 10);
+        var entry = cache.get(REQUEST);
+        assertFalse(entry.isFresh());
+        assertTrue(entry.canRevalidate());
+
+        var conditional = entry.toConditionalRequest(REQUEST);
+        assertEquals(REQUEST.uri(), conditional.uri());
+        assertEquals(Optional.of("\"abc\""), conditional.headers().firstValue("If-None-Match"));
+        assertEquals(Optional.of("Tue, 15 Nov 1994 08:12:31 GMT"), conditional.headers().firstValue("If-Modified-Since"));
+
+        // Not modified response without caching headers uses cached response's headers
+        cache.revalidated(entry, response(304));
+        assertFalse(entry.isFresh());
+        cache.revalidated(entry, response(304, "Cache-Control", "max-age=60"));
+        assertTrue(entry.isFresh());
+        assertEquals(BODY, cache.get(REQUEST).getBody());
+    }
+
+    @Test
+    public void testVary() {
+        var cache = new HttpResponseCache();
+        var request = request(REQUEST.uri().toString(), "Accept-Language", "en");
+        cache.store(request, response(200, "Cache-Control", "max-age=60", "Vary", "Accept-Language"), BODY, 10);
+        assertNotNull(cache.get(request(REQUEST.uri().toString(), "Accept-Language", "en")));
+        assertNull(cache.get(request(REQUEST.uri().toString(), "Accept-Language", "lt")));
+        assertNull(cache.get(REQUEST));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        var cache = new HttpResponseCache();
+        var first = request("https://example.com/1");
+        var second = request("https://example.com/2");
+        var third = request("https://example.com/3");
+        cache.store(first, response(200, "Cache-Control", "max-age=60"), "1", 2);
+        cache.store(second, response(200, "Cache-Control", "max-age=60"), "2", 2);
+        assertNotNull(cache.get(first));
+        cache.store(third, response(200, "Cache-Control", "max-age=60"), "3", 2);
+        assertNotNull(cache.get(first));
+        assertNull(cache.get(second));
+        assertNotNull(cache.get(third));
+
+        cache.clear();
+        assertNull(cache.get(first));
+    }
+
+    private record TestResponse(int statusCode, HttpHeaders headers) implements HttpResponse<String> {
+        @Override
+        public HttpRequest request() {
+            return REQUEST;
+        }
+
+        @Override
+        public Optional<HttpResponse<String>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public String body() {
+            return null;
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return REQUEST.uri();
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_1_1;
+        }
+    }
+}
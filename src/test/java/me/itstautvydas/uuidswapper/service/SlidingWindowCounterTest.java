@@ -0,0 +1,94 @@
+package me.itstautvydas.uuidswapper.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SlidingWindowCounterTest {
+    @Test
+    public void testLimit() {
+        var counter = new SlidingWindowCounter(1, TimeUnit.HOURS);
+        assertEquals(3, counter.getRemaining(3));
+        assertEquals(0, counter.getTimeToWait(3));
+        for (int i = 0; i < 3; i++)
+            assertTrue(counter.tryAcquire(3));
+        assertFalse(counter.tryAcquire(3));
+        assertEquals(0, counter.getRemaining(3));
+        assertTrue(counter.getTimeToWait(3) > 0);
+        // Higher limit still has room
+        assertTrue(counter.tryAcquire(5));
+        assertEquals(1, counter.getRemaining(5));
+    }
+
+    @Test
+    public void testRelease() {
+        var counter = new SlidingWindowCounter(1, TimeUnit.HOURS);
+        assertTrue(counter.tryAcquire(1));
+        assertFalse(counter.tryAcquire(1));
+        counter.release();
+        assertEquals(1, counter.getRemaining(1));
+        assertTrue(counter.tryAcquire(1));
+        // Nothing to give back
+        counter.release();
+        counter.release();
+        assertEquals(2, counter.getRemaining(2));
+    }
+
+    @Test
+    public void testLimitIsCapped() {
+        var counter = new SlidingWindowCounter(1, TimeUnit.HOURS);
+        assertEquals(SlidingWindowCounter.MAX_LIMIT, counter.getRemaining(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testWindowSlides() throws InterruptedException {
+        var counter = new SlidingWindowCounter(100, TimeUnit.MILLISECONDS);
+        while (counter.tryAcquire(10)) {}
+        var wait = counter.getTimeToWait(10);
+        assertTrue(wait > 0 && wait <= 200, String.valueOf(wait));
+        // Both windows have passed
+        Thread.sleep(250);
+        assertEquals(10, counter.getRemaining(10));
+        assertTrue(counter.tryAcquire(10));
+    }
+
+    @Test
+    public void testTimeToWaitIsEnough() throws InterruptedException {
+        var counter = new SlidingWindowCounter(100, TimeUnit.MILLISECONDS);
+        while (counter.tryAcquire(5)) {}
+        Thread.sleep(counter.getTimeToWait(5));
+        assertTrue(counter.tryAcquire(5));
+    }
+
+    @Test
+    public void testConcurrentAcquire() throws InterruptedException {
+        var counter = new SlidingWindowCounter(1, TimeUnit.HOURS);
+        var acquired = new AtomicInteger();
+        var start = new CountDownLatch(1);
+        var threads = new ArrayList<Thread>();
+        for (int i = 0; i < 8; i++) {
+            var thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                for (int j = 0; j < 1000; j++)
+                    if (counter.tryAcquire(5000))
+                        acquired.incrementAndGet();
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (var thread : threads)
+            thread.join();
+        assertEquals(5000, acquired.get());
+        assertEquals(0, counter.getRemaining(5000));
+    }
+}
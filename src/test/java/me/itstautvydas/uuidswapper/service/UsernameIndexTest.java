@@ -0,0 +1,118 @@
+package me.itstautvydas.uuidswapper.service;
+
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UsernameIndexTest {
+    private static final UUID NOTCH = UUID.fromString("069a79f4-44e9-4726-a5be-fca90e38aaf5");
+    private static final UUID JEB = UUID.fromString("853c80ef-3c37-49fd-aa49-938b674adae6");
+    private static final UUID DINNERBONE = UUID.fromString("61699b2e-d327-4a01-9f1e-0ea8c3f06bc6");
+
+    @TempDir
+    Path directory;
+
+    private UsernameIndex build(List<String> lines) throws IOException {
+        var input = directory.resolve("players.txt");
+        Files.write(input, lines);
+        var output = directory.resolve("index").resolve("players.idx");
+        UsernameIndex.build(input, output);
+        return UsernameIndex.open(output);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        var input = directory.resolve("players.txt");
+        Files.write(input, List.of(
+                "username,uuid",
+                "Notch,069a79f444e94726a5befca90e38aaf5",
+                "{\"name\": \"jeb_\", \"id\": \"853c80ef-3c37-49fd-aa49-938b674adae6\"}",
+                "",
+                "{\"username\": \"Dinnerbone\", \"uuid\": \"61699b2ed3274a019f1e0ea8c3f06bc6\"}",
+                "not a player",
+                "ThisNameIsWayTooLong,069a79f444e94726a5befca90e38aaf5"));
+        var output = directory.resolve("players.idx");
+        var result = UsernameIndex.build(input, output);
+        assertEquals(3, result.players());
+        assertEquals(3, result.skipped());
+
+        var index = UsernameIndex.open(output);
+        assertEquals(3, index.size());
+        assertEquals(NOTCH, index.find("Notch"));
+        assertEquals(NOTCH, index.find("nOTCH"));
+        assertEquals(JEB, index.find("jeb_"));
+        assertEquals(DINNERBONE, index.find("dinnerbone"));
+        assertNull(index.find("Herobrine"));
+        assertNull(index.find(""));
+        assertNull(index.find("ThisNameIsWayTooLong"));
+        try (var files = Files.list(directory)) {
+            assertFalse(files.anyMatch(file -> file.toString().endsWith(".tmp")));
+        }
+    }
+
+    @Test
+    public void testManyPlayers() throws IOException {
+        var players = new HashMap<String, UUID>();
+        var lines = new ArrayList<String>();
+        for (int i = 0; i < 5000; i++) {
+            var username = "player_" + Integer.toString(i * 7919, 36);
+            var uniqueId = UUID.randomUUID();
+            players.put(username, uniqueId);
+            lines.add(username + "," + uniqueId);
+        }
+        var index = build(lines);
+        assertEquals(players.size(), index.size());
+        for (var player : players.entrySet())
+            assertEquals(player.getValue(), index.find(player.getKey()), player.getKey());
+        assertNull(index.find("player_"));
+        assertNull(index.find("player_zzzzzzzz"));
+        // Before and after every record
+        assertNull(index.find("a"));
+        assertNull(index.find("~"));
+    }
+
+    @Test
+    public void testLastDuplicateWins() throws IOException {
+        var index = build(List.of("Notch," + JEB, "notch," + NOTCH));
+        assertEquals(1, index.size());
+        assertEquals(NOTCH, index.find("Notch"));
+    }
+
+    @Test
+    public void testEmptyIndex() throws IOException {
+        var index = build(List.of());
+        assertEquals(0, index.size());
+        assertNull(index.find("Notch"));
+    }
+
+    @Test
+    public void testLookup() throws IOException {
+        var index = build(List.of("Notch," + NOTCH));
+        var found = index.lookup("Notch");
+        assertEquals(200, found.statusCode());
+        var profile = JsonParser.parseString(found.body()).getAsJsonObject();
+        assertEquals("069a79f444e94726a5befca90e38aaf5", profile.get("id").getAsString());
+        assertEquals("Notch", profile.get("name").getAsString());
+        assertEquals("application/json", found.headers().firstValue("Content-Type").orElseThrow());
+        assertEquals(404, index.lookup("jeb_").statusCode());
+    }
+
+    @Test
+    public void testInvalidFile() throws IOException {
+        var file = directory.resolve("invalid.idx");
+        Files.write(file, new byte[8]);
+        assertThrows(IOException.class, () -> UsernameIndex.open(file));
+        Files.write(file, new byte[32]);
+        assertThrows(IOException.class, () -> UsernameIndex.open(file));
+    }
+}